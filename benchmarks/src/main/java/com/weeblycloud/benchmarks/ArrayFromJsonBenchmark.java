@@ -0,0 +1,64 @@
+package com.weeblycloud.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.weeblycloud.*;
+import com.weeblycloud.Group;
+import com.weeblycloud.utils.CloudException;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures converting a decoded list response into resource objects
+ * with each resource class's arrayFromJson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayFromJsonBenchmark {
+    private static final String[] IDS = new String[]{"1", "2", "3"};
+
+    @Param({"site", "page", "blog", "blog_post", "form", "form_entry",
+            "group", "member", "plan"})
+    public String type;
+
+    @Param({"100"})
+    public int count;
+
+    private JsonElement json;
+
+    @Setup
+    public void setup() {
+        json = new JsonParser().parse(Payloads.list(type, count, 1));
+    }
+
+    @Benchmark
+    public ArrayList<?> arrayFromJson() throws CloudException {
+        switch (type) {
+            case "site":
+                return Site.arrayFromJson(IDS, json);
+            case "page":
+                return Page.arrayFromJson(IDS, json);
+            case "blog":
+                return Blog.arrayFromJson(IDS, json);
+            case "blog_post":
+                return BlogPost.arrayFromJson(IDS, json);
+            case "form":
+                return Form.arrayFromJson(IDS, json);
+            case "form_entry":
+                return FormEntry.arrayFromJson(IDS, json);
+            case "group":
+                return Group.arrayFromJson(IDS, json);
+            case "member":
+                return Member.arrayFromJson(IDS, json);
+            default:
+                return Plan.arrayFromJson(IDS, json);
+        }
+    }
+}
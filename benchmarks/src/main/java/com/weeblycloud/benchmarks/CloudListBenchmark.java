@@ -0,0 +1,72 @@
+package com.weeblycloud.benchmarks;
+
+import com.weeblycloud.Site;
+import com.weeblycloud.fake.FakeCloudServer;
+import com.weeblycloud.utils.CloudClient;
+import com.weeblycloud.utils.CloudException;
+import com.weeblycloud.utils.CloudList;
+import com.weeblycloud.utils.CloudResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures iterating a paginated CloudList end to end, against a
+ * FakeCloudServer on the loopback interface.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CloudListBenchmark {
+    @Param({"1000"})
+    public int total;
+
+    @Param({"25", "100"})
+    public int limit;
+
+    @Param({"0", "2"})
+    public int prefetch;
+
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Setup
+    public void setup() throws IOException {
+        //Without TCP_NODELAY the fake server's responses stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new FakeCloudServer("benchmark-key", "benchmark-secret");
+        server.setSeedSize(total);
+        server.start();
+        client = new CloudClient.Builder("benchmark-key", "benchmark-secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) throws CloudException {
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("limit", limit);
+        CloudResponse first = client.get("user/1/site", parameters);
+
+        CloudList<Site> sites = new CloudList<Site>(first, new String[]{"1"},
+            Site::arrayFromJson);
+        sites.setPrefetch(prefetch);
+        for (Site site : sites) {
+            blackhole.consume(site);
+        }
+    }
+}
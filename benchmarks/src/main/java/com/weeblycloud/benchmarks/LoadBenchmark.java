@@ -0,0 +1,74 @@
+package com.weeblycloud.benchmarks;
+
+import com.weeblycloud.fake.FakeCloudServer;
+import com.weeblycloud.utils.AdaptiveLimiter;
+import com.weeblycloud.utils.CloudClient;
+import com.weeblycloud.utils.CloudException;
+import com.weeblycloud.utils.CloudResponse;
+import com.weeblycloud.utils.RetryPolicy;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures throughput and the latency distribution of concurrent GETs
+ * against a FakeCloudServer that adds latency and rejects a fraction of
+ * requests with 429. Run in sample time mode to get percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"5"})
+    public long latency;
+
+    @Param({"0", "0.05"})
+    public double throttleRate;
+
+    @Param({"false", "true"})
+    public boolean limited;
+
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Setup
+    public void setup() throws IOException {
+        //Without TCP_NODELAY the fake server's responses stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new FakeCloudServer("benchmark-key", "benchmark-secret");
+        server.setLatency(latency / 2, latency * 2);
+        server.setThrottleRate(throttleRate, 0);
+        server.start();
+
+        client = new CloudClient.Builder("benchmark-key", "benchmark-secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .setRetryPolicy(new RetryPolicy())
+            .setLimiter(limited
+                ? new AdaptiveLimiter(0, 1, 8, CloudClient.MAX_CONNECTIONS_PER_ROUTE)
+                : null)
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public CloudResponse getPage() throws CloudException {
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("page", ThreadLocalRandom.current().nextInt(1, 3));
+        return client.get("user/" + ThreadLocalRandom.current().nextInt(1, 50) + "/site/1/page",
+            parameters);
+    }
+}
@@ -0,0 +1,80 @@
+package com.weeblycloud.benchmarks;
+
+/**
+ * Builds JSON response bodies shaped like those of the Weebly Cloud API.
+ */
+public final class Payloads {
+    private Payloads() {}
+
+    /**
+     * Returns a list response of count items of a resource type, in the
+     * form its list endpoint returns it.
+     *
+     * @param type One of site, page, blog, blog_post, form, form_entry,
+     *              group, member or plan.
+     * @param count The number of items.
+     * @param firstId The id of the first item.
+     */
+    public static String list(String type, int count, int firstId) {
+        StringBuilder json = new StringBuilder(count * 400);
+        if (type.equals("site")) {
+            json.append("{\"sites\":[");
+        } else if (type.equals("plan")) {
+            json.append("{\"plans\":{");
+        } else {
+            json.append('[');
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            int id = firstId + i;
+            if (type.equals("plan")) {
+                json.append('"').append(id).append("\":");
+            }
+            item(json, type, id);
+        }
+
+        if (type.equals("site")) {
+            json.append("]}");
+        } else if (type.equals("plan")) {
+            json.append("}}");
+        } else {
+            json.append(']');
+        }
+        return json.toString();
+    }
+
+    private static void item(StringBuilder json, String type, int id) {
+        String idKey = type.equals("blog_post") ? "post_id" : type + "_id";
+        json.append("{\"").append(idKey).append("\":\"").append(id).append('"');
+
+        if (type.equals("site")) {
+            json.append(",\"site_title\":\"Site ").append(id).append('"')
+                .append(",\"domain\":\"site").append(id).append(".weebly.com\"")
+                .append(",\"language\":\"en\",\"is_published\":true")
+                .append(",\"brand_name\":null,\"plan_id\":\"1\"");
+        } else if (type.equals("page") || type.equals("blog_post")) {
+            json.append(",\"title\":\"Title ").append(id).append('"')
+                .append(",\"url\":\"/item-").append(id).append(".html\"")
+                .append(",\"layout\":\"no-header\",\"hidden\":false");
+        } else if (type.equals("form_entry")) {
+            json.append(",\"form_id\":\"1\",\"data\":{\"name\":\"Name ").append(id)
+                .append("\",\"email\":\"person").append(id)
+                .append("@example.com\",\"message\":\"Hello, \\u00e9t\\u00e9 \\\"quoted\\\"\"}");
+        } else if (type.equals("member")) {
+            json.append(",\"name\":\"Member ").append(id).append('"')
+                .append(",\"email\":\"member").append(id).append("@example.com\"")
+                .append(",\"group_ids\":[\"1\",\"2\"]");
+        } else if (type.equals("plan")) {
+            json.append(",\"name\":\"Plan ").append(id).append('"')
+                .append(",\"is_free\":false,\"prices\":{\"1\":\"8.00\",\"12\":\"96.00\"}");
+        } else {
+            json.append(",\"name\":\"Name ").append(id).append('"');
+        }
+
+        json.append(",\"created_date\":\"2016-07-").append(10 + id % 20)
+            .append("T12:00:00+00:00\"}");
+    }
+}
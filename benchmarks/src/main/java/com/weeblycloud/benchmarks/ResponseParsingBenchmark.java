@@ -0,0 +1,65 @@
+package com.weeblycloud.benchmarks;
+
+import com.weeblycloud.utils.CloudException;
+import com.weeblycloud.utils.CloudResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures decoding one page of a paginated list response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParsingBenchmark {
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private byte[] body;
+    private HashMap<String, Object> parameters;
+
+    @Setup
+    public void setup() {
+        body = Payloads.list("page", pageSize, 1).getBytes(StandardCharsets.UTF_8);
+        parameters = new HashMap<String, Object>();
+        parameters.put("limit", pageSize);
+    }
+
+    private BasicHttpResponse response() {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        response.addHeader("X-Resultset-Total", String.valueOf(pageSize * 10));
+        response.addHeader("X-Resultset-Limit", String.valueOf(pageSize));
+        response.addHeader("X-Resultset-Page", "1");
+        return response;
+    }
+
+    /**
+     * Builds the whole body as a JSON tree.
+     */
+    @Benchmark
+    public CloudResponse parse() throws CloudException {
+        return new CloudResponse(response(), "user/1/site/1/page", parameters);
+    }
+
+    /**
+     * Passes each element to a handler as it is read.
+     */
+    @Benchmark
+    public CloudResponse stream(Blackhole blackhole) throws CloudException {
+        return new CloudResponse(response(), "user/1/site/1/page", parameters,
+            blackhole::consume);
+    }
+}
@@ -0,0 +1,85 @@
+package com.weeblycloud.benchmarks;
+
+import com.weeblycloud.utils.RequestSigner;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures signing a request with the API secret.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+    @Param({"0", "200", "4000"})
+    public int bodySize;
+
+    private String secret;
+    private RequestSigner signer;
+    private String url;
+    private String body;
+    private byte[] content;
+
+    @Setup
+    public void setup() {
+        secret = "0123456789abcdef0123456789abcdef";
+        signer = new RequestSigner(secret);
+        url = "user/12345/site/67890/blog/13579/post";
+        StringBuilder builder = new StringBuilder("{\"post_body\":\"");
+        while (builder.length() < bodySize) {
+            builder.append("Lorem ipsum dolor sit amet. ");
+        }
+        body = (bodySize == 0) ? "" : builder.append("\"}").toString();
+        content = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Signs the request parts without concatenating them.
+     */
+    @Benchmark
+    public String signRequest() {
+        return signer.sign("POST", url, content);
+    }
+
+    /**
+     * Signs the concatenated message with RequestSigner.
+     */
+    @Benchmark
+    public String signMessage() {
+        return signer.sign("POST" + "\n" + url + "\n" + body);
+    }
+
+    /**
+     * Signs the concatenated message the way the client did before
+     * RequestSigner, as the baseline for the other benchmarks.
+     */
+    @Benchmark
+    public String baseline() throws Exception {
+        return makeHash("POST" + "\n" + url + "\n" + body);
+    }
+
+    /**
+     * The signing code RequestSigner replaced: a new Mac for every
+     * request, and hex encoding through BigInteger and String.format.
+     */
+    private String makeHash(String message) throws Exception {
+        Mac sha256_HMAC = Mac.getInstance("HmacSHA256");
+        SecretKeySpec secretKey = new SecretKeySpec(secret.getBytes("utf-8"), "HmacSHA256");
+        sha256_HMAC.init(secretKey);
+        byte[] hash = sha256_HMAC.doFinal(message.getBytes("utf-8"));
+
+        String hexString = String.format("%064x", new BigInteger(1,hash));
+        return Base64.getEncoder().encodeToString(hexString.getBytes("utf-8"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.weeblycloud.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures building signed HTTP requests. Lives in the client's package
+ * to reach CloudClient.buildHttpRequest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuildingBenchmark {
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+
+    private CloudClient client;
+    private HashMap<String, Object> query;
+    private HashMap<String, Object> body;
+
+    @Setup
+    public void setup() {
+        client = new CloudClient.Builder("benchmark-key", "benchmark-secret").build();
+
+        query = new HashMap<String, Object>();
+        query.put("limit", 25);
+        query.put("page", 3);
+        query.put("query", "help center");
+
+        body = new HashMap<String, Object>();
+        body.put("title", "About us");
+        body.put("url", "/about-us.html");
+        body.put("layout", "no-header");
+        body.put("hidden", false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public HttpRequestBase get() {
+        return client.buildHttpRequest("user/1/site/2/page", "GET", query, NO_HEADERS);
+    }
+
+    @Benchmark
+    public HttpRequestBase patch() {
+        return client.buildHttpRequest("user/1/site/2/page/3", "PATCH", body, NO_HEADERS);
+    }
+}
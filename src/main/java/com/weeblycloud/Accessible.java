@@ -1,5 +1,6 @@
 package com.weeblycloud;
 
+import com.weeblycloud.utils.CloudClient;
 import java.util.HashMap;
 
 /**
@@ -19,4 +20,14 @@ public interface Accessible {
      * @return Properties that have been changed by setProperty.
      */
     public HashMap<String, Object> getChanged();
+
+    /**
+     * Gets the client used for requests about the resource.
+     *
+     * @return The client the resource was created with, or the
+     *      default client.
+     */
+    default CloudClient getClient() {
+        return CloudClient.getClient();
+    }
 }
\ No newline at end of file
@@ -17,7 +17,21 @@ public class Account extends CloudResource implements Mutable {
      * @throws CloudException
      */
     public Account(boolean initialize) throws CloudException {
-        super("account", initialize, null);
+        this(null, initialize);
+    }
+
+    /**
+     * Creates an Account object.
+     *
+     * @param client The client this account makes requests with, or null
+     *      to use the default client.
+     * @param initialize Whether or not to retrieve this account's properties
+     *      from the server upon instantiation. The properties can later
+     *      be retrieved by calling get().
+     * @throws CloudException
+     */
+    public Account(CloudClient client, boolean initialize) throws CloudException {
+        super(client, "account", initialize, null);
     }
 
     /**
@@ -28,6 +42,16 @@ public class Account extends CloudResource implements Mutable {
         this(true);
     }
 
+    /**
+     * Creates a new Account object that makes requests with a client.
+     *
+     * @param client The client to make requests with.
+     * @throws CloudException
+     */
+    public Account(CloudClient client) throws CloudException {
+        this(client, true);
+    }
+
     /**
      * Extracts properties from Account's unique JSON response format.
      *
@@ -48,14 +72,14 @@ public class Account extends CloudResource implements Mutable {
      */
     public User createUser(String email, HashMap<String, Object> data)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
 
         data.put("email",email);
         
         CloudResponse res = client.post("user", data);
         JsonObject userData = res.body.getAsJsonObject().getAsJsonObject("user");
 
-        return new User(userData.get("user_id").getAsString(), false, userData);
+        return new User(this.client, userData.get("user_id").getAsString(), false, userData);
     }
 
     /**
@@ -74,10 +98,11 @@ public class Account extends CloudResource implements Mutable {
      * @throws CloudException
      */
     public CloudList<Plan> listPlans() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get("plan");
         
-        return new CloudList<Plan>(res, new String[]{}, Plan::arrayFromJson);
+        return new CloudList<Plan>(res, new String[]{},
+            (ids, json) -> Plan.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -88,6 +113,6 @@ public class Account extends CloudResource implements Mutable {
      * @throws CloudException
      */
     public Plan getPlan(String planId) throws CloudException {
-        return new Plan(planId);
+        return new Plan(this.client, planId);
     }
 }
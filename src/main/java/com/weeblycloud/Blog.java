@@ -34,7 +34,32 @@ public class Blog extends CloudResource {
         boolean initialize,
         JsonObject existing
     ) throws CloudException {
-        super("user/"+userId+"/site/"+siteId+"/blog/"+blogId, initialize, existing);
+        this(null, userId, siteId, blogId, initialize, existing);
+    }
+
+    /**
+     * Creates a Blog object.
+     *
+     * @param client The client this blog makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this blog belongs to.
+     * @param siteId ID of the site this blog belongs to.
+     * @param blogId ID of an existing blog.
+     * @param initialize Whether or not to retrieve this blog's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Blog's properties if initialize
+     *          is false.
+     */
+    public Blog(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String blogId,
+        boolean initialize,
+        JsonObject existing
+    ) throws CloudException {
+        super(client, "user/"+userId+"/site/"+siteId+"/blog/"+blogId, initialize, existing);
         this.userId = userId;
         this.siteId = siteId;
         this.blogId = blogId;
@@ -70,14 +95,50 @@ public class Blog extends CloudResource {
         this(userId, siteId, blogId, true, null);
     }
 
+    /**
+     * Creates a Blog object.
+     *
+     * @param client The client this blog makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this blog belongs to.
+     * @param siteId ID of the site this blog belongs to.
+     * @param blogId ID of an existing blog.
+     */
+    public Blog(CloudClient client, String userId, String siteId, String blogId)
+            throws CloudException {
+        this(client, userId, siteId, blogId, true, null);
+    }
+
+    /**
+     * Returns a CloudList of BlogPosts on this Blog.
+     *
+     * @param searchParams Search query parameters. See the API documentation
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
+     */
+    public CloudList<BlogPost> listBlogPosts(HashMap<String, Object> searchParams)
+            throws CloudException {
+        CloudClient client = getClient();
+        CloudResponse res = client.get(this.url + "/post", searchParams);
+        return new CloudList<BlogPost>(res, new String[]{this.userId, this.siteId, this.blogId},
+            (ids, json) -> BlogPost.arrayFromJson(this.client, ids, json));
+    }
+
     /**
      * Returns a CloudList of BlogPosts on this Blog.
      */
     public CloudList<BlogPost> listBlogPosts() throws CloudException {
-        CloudClient client = CloudClient.getClient();
-        CloudResponse res = client.get(this.url + "/post");
-        return new CloudList<BlogPost>(res,
-            new String[]{this.userId, this.siteId, this.blogId}, BlogPost::arrayFromJson);
+        return listBlogPosts(new HashMap<String, Object>());
+    }
+
+    /**
+     * Returns a Publisher of the BlogPosts on this Blog. Pages are
+     * requested asynchronously as the subscriber requests items.
+     */
+    public CloudPublisher<BlogPost> listBlogPostsPublisher() {
+        return new CloudPublisher<BlogPost>(this.client, this.url + "/post", null,
+            new String[]{this.userId, this.siteId, this.blogId},
+            (ids, json) -> BlogPost.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -89,14 +150,14 @@ public class Blog extends CloudResource {
     */
     public BlogPost createBlogPost(String postBody, HashMap<String, Object> data)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
 
         data.put("post_body", postBody);
 
         CloudResponse res = client.post(this.url+"/post", data);
         JsonObject post = res.body.getAsJsonObject();
 
-        return new BlogPost(this.userId, this.siteId, this.blogId, post.get("post_id").getAsString(), false, post);
+        return new BlogPost(this.client, this.userId, this.siteId, this.blogId, post.get("post_id").getAsString(), false, post);
     }
 
     /**
@@ -114,7 +175,7 @@ public class Blog extends CloudResource {
     * @param postId The ID of the post to retrieve.
     */
     public BlogPost getBlogPost(String postId) throws CloudException {
-        return new BlogPost(this.userId, this.siteId, this.blogId, postId);
+        return new BlogPost(this.client, this.userId, this.siteId, this.blogId, postId);
     }
 
     /**
@@ -130,12 +191,30 @@ public class Blog extends CloudResource {
      */
     public static ArrayList<Blog> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Blog objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Blogs make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Blogs
+     *              (user ID and site ID).
+     * @param json JSON representation of a list of blogs.
+     */
+    public static ArrayList<Blog> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Blog> blogList = new ArrayList<Blog>();
         JsonArray blogs = json.getAsJsonArray();
 
         for (JsonElement blog : blogs) {
             String id = blog.getAsJsonObject().get("blog_id").getAsString();
-            blogList.add(new Blog(ids[0], ids[1], id, false, blog.getAsJsonObject()));
+            blogList.add(new Blog(client, ids[0], ids[1], id, false, blog.getAsJsonObject()));
         }
 
         return blogList;
@@ -36,8 +36,36 @@ public class BlogPost extends CloudResource implements Deletable, Mutable {
         String blogPostId,
         boolean initialize,
         JsonObject existing
+    ) throws CloudException {
+        this(null, userId, siteId, blogId, blogPostId, initialize, existing);
+    }
+
+    /**
+     * Creates a BlogPost object.
+     *
+     * @param client The client this post makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user who owns the blog this post belongs to.
+     * @param siteId ID of the site this post belongs to.
+     * @param blogId ID of the blog this post belongs to.
+     * @param blogPostId ID of an existing post.
+     * @param initialize Whether or not to retrieve this post's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the BlogPost's properties if initialize
+     *          is false.
+     */
+    public BlogPost(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String blogId,
+        String blogPostId,
+        boolean initialize,
+        JsonObject existing
     ) throws CloudException {
         super(
+            client,
             "user/"+userId+"/site/"+siteId+"/blog/"+blogId+"/post/"+blogPostId,
             initialize,
             existing
@@ -86,6 +114,26 @@ public class BlogPost extends CloudResource implements Deletable, Mutable {
         this(userId, siteId, blogId, blogPostId, true, null);
     }
 
+    /**
+     * Creates a BlogPost object.
+     *
+     * @param client The client this post makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user who owns the blog this post belongs to.
+     * @param siteId ID of the site this post belongs to.
+     * @param blogId ID of the blog this post belongs to.
+     * @param blogPostId ID of an existing post.
+     */
+    public BlogPost(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String blogId,
+        String blogPostId
+    ) throws CloudException {
+        this(client, userId, siteId, blogId, blogPostId, true, null);
+    }
+
     /**
      * Converts a JSON response into an array of
      * BlogPost objects. Because the formatting of responses
@@ -99,13 +147,31 @@ public class BlogPost extends CloudResource implements Deletable, Mutable {
      */
     public static ArrayList<BlogPost> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * BlogPost objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the BlogPosts make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the BlogPosts
+     *              (user ID, site ID, and blog ID).
+     * @param json JSON of a list of blog posts.
+     */
+    public static ArrayList<BlogPost> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<BlogPost> blogPostList = new ArrayList<BlogPost>();
         JsonArray blogPosts = json.getAsJsonArray();
 
         for (JsonElement blogPost : blogPosts) {
             String id = blogPost.getAsJsonObject().get("post_id").getAsString();
             blogPostList.add(
-                new BlogPost(ids[0], ids[1], ids[2], id, false, blogPost.getAsJsonObject())
+                new BlogPost(client, ids[0], ids[1], ids[2], id, false, blogPost.getAsJsonObject())
             );
         }
 
@@ -1,6 +1,7 @@
 package com.weeblycloud;
 
 import com.weeblycloud.utils.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
 * A resource that can be deleted.
@@ -10,7 +11,14 @@ public interface Deletable extends Accessible{
     * Deletes the resource from the database.
     */
     default boolean delete() throws CloudException {
-        CloudClient.getClient().delete(getUrl());
+        getClient().delete(getUrl());
         return true;
     }
+
+    /**
+    * Deletes the resource from the database without blocking.
+    */
+    default CompletableFuture<Boolean> deleteAsync() {
+        return getClient().deleteAsync(getUrl()).thenApply(res -> true);
+    }
 }
\ No newline at end of file
@@ -34,7 +34,32 @@ public class Form extends CloudResource {
         boolean initialize,
         JsonObject existing
     ) throws CloudException {
-        super("user/"+userId+"/site/"+siteId+"/form/"+formId, initialize, existing);
+        this(null, userId, siteId, formId, initialize, existing);
+    }
+
+    /**
+     * Creates a Form object.
+     *
+     * @param client The client this form makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this form belongs to.
+     * @param siteId ID of the site this form belongs to.
+     * @param formId ID of an existing form.
+     * @param initialize Whether or not to retrieve this form's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Form's properties if initialize
+     *          is false.
+     */
+    public Form(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String formId,
+        boolean initialize,
+        JsonObject existing
+    ) throws CloudException {
+        super(client, "user/"+userId+"/site/"+siteId+"/form/"+formId, initialize, existing);
         this.userId = userId;
         this.siteId = siteId;
         this.formId = formId;
@@ -74,20 +99,35 @@ public class Form extends CloudResource {
         this(userId, siteId, formId, true, null);
     }
 
+    /**
+     * Creates a Form object.
+     *
+     * @param client The client this form makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this form belongs to.
+     * @param siteId ID of the site this form belongs to.
+     * @param formId ID of an existing form.
+     */
+    public Form(CloudClient client, String userId, String siteId, String formId)
+            throws CloudException {
+        this(client, userId, siteId, formId, true, null);
+    }
+
     /**
      * Returns a CloudList of FormEntries on this Form.
      *
      * @param searchParams Search query parameters. See the API documentation
-     *              for valid parameters.
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
      */
     public CloudList<FormEntry> listFormEntries(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
-        CloudResponse res = client.get(this.url + "/entry");
+        CloudClient client = getClient();
+        CloudResponse res = client.get(this.url + "/entry", searchParams);
         return new CloudList<FormEntry>(
             res,
             new String[]{this.userId, this.siteId, this.formId},
-            FormEntry::arrayFromJson
+            (ids, json) -> FormEntry.arrayFromJson(this.client, ids, json)
         );
     }
 
@@ -98,6 +138,31 @@ public class Form extends CloudResource {
         return listFormEntries(new HashMap<String, Object>());
     }
 
+    /**
+     * Returns a Publisher of the FormEntries on this Form. Pages are
+     * requested asynchronously as the subscriber requests items.
+     *
+     * @param searchParams Search query parameters. See the API documentation
+     *              for valid parameters.
+     */
+    public CloudPublisher<FormEntry> listFormEntriesPublisher(
+            HashMap<String, Object> searchParams) {
+        return new CloudPublisher<FormEntry>(
+            this.client,
+            this.url + "/entry",
+            searchParams,
+            new String[]{this.userId, this.siteId, this.formId},
+            (ids, json) -> FormEntry.arrayFromJson(this.client, ids, json)
+        );
+    }
+
+    /**
+     * Returns a Publisher of the FormEntries on this Form.
+     */
+    public CloudPublisher<FormEntry> listFormEntriesPublisher() {
+        return listFormEntriesPublisher(new HashMap<String, Object>());
+    }
+
     /**
     * Returns the FormEntry with the given ID. Must belong to
     * this form.
@@ -105,7 +170,7 @@ public class Form extends CloudResource {
     * @param entryId ID of the form entry to return.
     */
     public FormEntry getFormEntry(String entryId) throws CloudException {
-        return new FormEntry(this.userId, this.siteId, this.formId, entryId);
+        return new FormEntry(this.client, this.userId, this.siteId, this.formId, entryId);
     }
 
     /**
@@ -121,12 +186,30 @@ public class Form extends CloudResource {
      */
     public static ArrayList<Form> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Form objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Forms make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Forms
+     *              (userId and siteId).
+     * @param json JSON representation of a list of forms.
+     */
+    public static ArrayList<Form> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Form> formList = new ArrayList<Form>();
         JsonArray forms = json.getAsJsonArray();
 
         for (JsonElement form : forms) {
             String id = form.getAsJsonObject().get("form_id").getAsString();
-            formList.add(new Form(ids[0], ids[1], id, false, form.getAsJsonObject()));
+            formList.add(new Form(client, ids[0], ids[1], id, false, form.getAsJsonObject()));
         }
 
         return formList;
@@ -36,8 +36,36 @@ public class FormEntry extends CloudResource {
         String formEntryId,
         boolean initialize,
         JsonObject existing
+    ) throws CloudException {
+        this(null, userId, siteId, formId, formEntryId, initialize, existing);
+    }
+
+    /**
+     * Creates a FormEntry object.
+     *
+     * @param client The client this form entry makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this form entry belongs to.
+     * @param siteId ID of the site this form entry belongs to.
+     * @param formId ID of the form this form entry belongs to.
+     * @param formEntryId ID of an existing form entry.
+     * @param initialize Whether or not to retrieve this form entry's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the FormEntry's properties if initialize
+     *          is false.
+     */
+    public FormEntry(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String formId,
+        String formEntryId,
+        boolean initialize,
+        JsonObject existing
     ) throws CloudException {
         super(
+            client,
             "user/"+userId+"/site/"+siteId+"/form/"+formId+"/entry/"+formEntryId,
             initialize,
             existing
@@ -86,6 +114,26 @@ public class FormEntry extends CloudResource {
         this(userId, siteId, formId, formEntryId, true, null);
     }
 
+    /**
+     * Creates a FormEntry object.
+     *
+     * @param client The client this form entry makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this form entry belongs to.
+     * @param siteId ID of the site this form entry belongs to.
+     * @param formId ID of the form this form entry belongs to.
+     * @param formEntryId ID of an existing form entry.
+     */
+    public FormEntry(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String formId,
+        String formEntryId
+    ) throws CloudException {
+        this(client, userId, siteId, formId, formEntryId, true, null);
+    }
+
     /**
      * Converts a JSON response into an array of
      * FormEntry objects. Because the formatting of responses
@@ -99,13 +147,31 @@ public class FormEntry extends CloudResource {
      */
     public static ArrayList<FormEntry> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * FormEntry objects. Because the formatting of responses
+     * and the IDs needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the FormEntrys make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the FormEntries
+     *              (userId, siteId, and formId).
+     * @param json JSON representation of a list of form entries.
+     */
+    public static ArrayList<FormEntry> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<FormEntry> formEntryList = new ArrayList<FormEntry>();
         JsonArray formEntries = json.getAsJsonArray();
 
         for (JsonElement formEntry : formEntries) {
             String id = formEntry.getAsJsonObject().get("form_entry_id").getAsString();
             formEntryList.add(
-                new FormEntry(ids[0], ids[1], ids[2], id, false, formEntry.getAsJsonObject())
+                new FormEntry(client, ids[0], ids[1], ids[2], id, false, formEntry.getAsJsonObject())
             );
         }
 
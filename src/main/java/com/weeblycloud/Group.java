@@ -34,7 +34,32 @@ public class Group extends CloudResource implements Deletable, Mutable{
         boolean initialize,
         JsonObject existing
     ) throws CloudException {
-        super("user/"+userId+"/site/"+siteId+"/group/"+groupId, initialize, existing);
+        this(null, userId, siteId, groupId, initialize, existing);
+    }
+
+    /**
+     * Creates a Group object.
+     *
+     * @param client The client this group makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this group belongs to.
+     * @param siteId ID of the site this group belongs to.
+     * @param groupId ID of an existing group.
+     * @param initialize Whether or not to retrieve this group's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Group's properties if initialize
+     *          is false.
+     */
+    public Group(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String groupId,
+        boolean initialize,
+        JsonObject existing
+    ) throws CloudException {
+        super(client, "user/"+userId+"/site/"+siteId+"/group/"+groupId, initialize, existing);
         this.userId = userId;
         this.siteId = siteId;
         this.groupId = groupId;
@@ -70,6 +95,20 @@ public class Group extends CloudResource implements Deletable, Mutable{
         this(userId, siteId, groupId, true, null);
     }
 
+    /**
+     * Creates a Group object.
+     *
+     * @param client The client this group makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this group belongs to.
+     * @param siteId ID of the site this group belongs to.
+     * @param groupId ID of an existing group.
+     */
+    public Group(CloudClient client, String userId, String siteId, String groupId)
+            throws CloudException {
+        this(client, userId, siteId, groupId, true, null);
+    }
+
     /**
      * Converts a JSON response into an array of
      * Group objects. Because the formatting of responses
@@ -83,12 +122,30 @@ public class Group extends CloudResource implements Deletable, Mutable{
      */
     public static ArrayList<Group> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Group objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Groups make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Groups
+     *              (userId and siteId).
+     * @param json JSON representation of a list of groups.
+     */
+    public static ArrayList<Group> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Group> groupList = new ArrayList<Group>();
         JsonArray groups = json.getAsJsonArray();
 
         for (JsonElement group : groups) {
             String id = group.getAsJsonObject().get("group_id").getAsString();
-            groupList.add(new Group(ids[0], ids[1], id, false, group.getAsJsonObject()));
+            groupList.add(new Group(client, ids[0], ids[1], id, false, group.getAsJsonObject()));
         }
 
         return groupList;
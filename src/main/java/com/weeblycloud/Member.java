@@ -34,7 +34,32 @@ public class Member extends CloudResource implements Deletable, Mutable{
         boolean initialize,
         JsonObject existing
     ) throws CloudException {
-        super("user/"+userId+"/site/"+siteId+"/member/"+memberId, initialize, existing);
+        this(null, userId, siteId, memberId, initialize, existing);
+    }
+
+    /**
+     * Creates a Member object.
+     *
+     * @param client The client this member makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this member belongs to.
+     * @param siteId ID of the site this member belongs to.
+     * @param memberId ID of an existing member.
+     * @param initialize Whether or not to retrieve this member's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Member's properties if initialize
+     *          is false.
+     */
+    public Member(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String memberId,
+        boolean initialize,
+        JsonObject existing
+    ) throws CloudException {
+        super(client, "user/"+userId+"/site/"+siteId+"/member/"+memberId, initialize, existing);
         this.userId = userId;
         this.siteId = siteId;
         this.memberId = memberId;
@@ -70,6 +95,20 @@ public class Member extends CloudResource implements Deletable, Mutable{
         this(userId, siteId, memberId, true, null);
     }
 
+    /**
+     * Creates a Member object.
+     *
+     * @param client The client this member makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this member belongs to.
+     * @param siteId ID of the site this member belongs to.
+     * @param memberId ID of an existing member.
+     */
+    public Member(CloudClient client, String userId, String siteId, String memberId)
+            throws CloudException {
+        this(client, userId, siteId, memberId, true, null);
+    }
+
     /**
      * Converts a JSON response into an array of
      * Member objects. Because the formatting of responses
@@ -83,13 +122,31 @@ public class Member extends CloudResource implements Deletable, Mutable{
      */
     public static ArrayList<Member> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Member objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Members make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Members
+     *              (userId and siteId).
+     * @param json JSON representation of a list of members.
+     */
+    public static ArrayList<Member> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Member> memberList = new ArrayList<Member>();
         JsonArray members = json.getAsJsonArray();
 
         for (JsonElement member : members) {
             String id = member.getAsJsonObject().get("member_id").getAsString();
             memberList.add(
-                new Member(ids[0], ids[1], id, false, member.getAsJsonObject())
+                new Member(client, ids[0], ids[1], id, false, member.getAsJsonObject())
             );
         }
 
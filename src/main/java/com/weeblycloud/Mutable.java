@@ -1,6 +1,8 @@
 package com.weeblycloud;
 
 import com.weeblycloud.utils.*;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
 * A resource whose properties can be changed.
@@ -10,10 +12,28 @@ public interface Mutable extends Accessible{
      * Saves the changed properties to the database.
      */
     default void save() throws CloudException {
-        CloudClient.getClient().patch(getUrl(), getChanged());
+        getClient().patch(getUrl(), getChanged());
         getChanged().clear();
     }
 
+    /**
+     * Saves the changed properties to the database without blocking.
+     * The changes are cleared once the request completes successfully,
+     * except for properties set to a new value while it was in flight.
+     */
+    default CompletableFuture<Void> saveAsync() {
+        HashMap<String, Object> changes = getChanged();
+        HashMap<String, Object> saved;
+        synchronized (changes) {
+            saved = new HashMap<String, Object>(changes);
+        }
+        return getClient().patchAsync(getUrl(), saved).thenAccept(res -> {
+            synchronized (changes) {
+                changes.entrySet().removeAll(saved.entrySet());
+            }
+        });
+    }
+
     /**
      * Sets a property of the resource. This change is NOT
      * saved in the database until save() is called.
@@ -22,7 +42,10 @@ public interface Mutable extends Accessible{
      * @param value The property's new value.
      */
     default boolean setProperty(String property, Object value) {
-        getChanged().put(property, value);
+        HashMap<String, Object> changes = getChanged();
+        synchronized (changes) {
+            changes.put(property, value);
+        }
 
         return true;
     }
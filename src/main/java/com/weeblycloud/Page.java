@@ -34,7 +34,32 @@ public class Page extends CloudResource implements Mutable{
         boolean initialize,
         JsonObject existing
     ) throws CloudException {
-        super("user/"+userId+"/site/"+siteId+"/page/"+pageId, initialize, existing);
+        this(null, userId, siteId, pageId, initialize, existing);
+    }
+
+    /**
+     * Creates a Page object.
+     *
+     * @param client The client this page makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this page belongs to.
+     * @param siteId ID of the site this page belongs to.
+     * @param pageId ID of an existing page.
+     * @param initialize Whether or not to retrieve this page's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Page's properties if initialize
+     *          is false.
+     */
+    public Page(
+        CloudClient client,
+        String userId,
+        String siteId,
+        String pageId,
+        boolean initialize,
+        JsonObject existing
+    ) throws CloudException {
+        super(client, "user/"+userId+"/site/"+siteId+"/page/"+pageId, initialize, existing);
         this.userId = userId;
         this.siteId = siteId;
         this.pageId = pageId;
@@ -70,6 +95,20 @@ public class Page extends CloudResource implements Mutable{
         this(userId, siteId, pageId, true, null);
     }
 
+    /**
+     * Creates a Page object.
+     *
+     * @param client The client this page makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this page belongs to.
+     * @param siteId ID of the site this page belongs to.
+     * @param pageId ID of an existing page.
+     */
+    public Page(CloudClient client, String userId, String siteId, String pageId)
+            throws CloudException {
+        this(client, userId, siteId, pageId, true, null);
+    }
+
     /**
      * Converts a JSON response into an array of
      * Page objects. Because the formatting of responses
@@ -83,12 +122,30 @@ public class Page extends CloudResource implements Mutable{
      */
     public static ArrayList<Page> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Page objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Pages make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Pages
+     *              (userId and siteId).
+     * @param json JSON representation of a list of pages.
+     */
+    public static ArrayList<Page> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Page> pageList = new ArrayList<Page>();
         JsonArray pages = json.getAsJsonArray();
 
         for (JsonElement page : pages) {
             String id = page.getAsJsonObject().get("page_id").getAsString();
-            pageList.add(new Page(ids[0], ids[1], id, false, page.getAsJsonObject()));
+            pageList.add(new Page(client, ids[0], ids[1], id, false, page.getAsJsonObject()));
         }
 
         return pageList;
@@ -26,7 +26,24 @@ public class Plan extends CloudResource {
      */
     public Plan(String planId, boolean initialize, JsonObject existing)
             throws CloudException {
-        super("plan/"+planId, initialize, existing);
+        this(null, planId, initialize, existing);
+    }
+
+    /**
+     * Creates a Plan object.
+     *
+     * @param client The client this plan makes requests with, or null
+     *          to use the default client.
+     * @param planId ID of an existing plan.
+     * @param initialize Whether or not to retrieve this plan's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Plan's properties if initialize
+     *          is false.
+     */
+    public Plan(CloudClient client, String planId, boolean initialize, JsonObject existing)
+            throws CloudException {
+        super(client, "plan/"+planId, initialize, existing);
         this.planId = planId;
     }
 
@@ -65,6 +82,17 @@ public class Plan extends CloudResource {
         this(planId, true, null);
     }
 
+    /**
+     * Creates a Plan object.
+     *
+     * @param client The client this plan makes requests with, or null
+     *          to use the default client.
+     * @param planId ID of an existing plan.
+     */
+    public Plan(CloudClient client, String planId) throws CloudException {
+        this(client, planId, true, null);
+    }
+
     /**
      * Converts a JSON response into an array of
      * Plan objects. Because the formatting of responses
@@ -78,12 +106,30 @@ public class Plan extends CloudResource {
      */
     public static ArrayList<Plan> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Plan objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Plans make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Plans
+     *              (none).
+     * @param json JSON representation of a list of plans.
+     */
+    public static ArrayList<Plan> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Plan> planList = new ArrayList<Plan>();
         JsonObject plans = json.getAsJsonObject().get("plans").getAsJsonObject();
         
         for (Map.Entry plan : plans.entrySet()) {
             planList.add(
-                new Plan((String)plan.getKey(), false, (JsonObject)plan.getValue())
+                new Plan(client, (String)plan.getKey(), false, (JsonObject)plan.getValue())
             );
         }
         return planList;
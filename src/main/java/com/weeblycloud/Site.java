@@ -3,6 +3,7 @@ package com.weeblycloud;
 import com.weeblycloud.utils.*;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonArray;
@@ -27,7 +28,25 @@ public class Site extends CloudResource implements Deletable, Mutable {
      */
     public Site(String userId, String siteId, boolean initialize, JsonObject existing)
             throws CloudException {
-        super("user/"+userId+"/site/"+siteId, initialize, existing);
+        this(null, userId, siteId, initialize, existing);
+    }
+
+    /**
+     * Creates a Site object.
+     *
+     * @param client The client this site makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this site belongs to.
+     * @param siteId ID of an existing site.
+     * @param initialize Whether or not to retrieve this site's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the Site's properties if initialize
+     *          is false.
+     */
+    public Site(CloudClient client, String userId, String siteId, boolean initialize,
+            JsonObject existing) throws CloudException {
+        super(client, "user/"+userId+"/site/"+siteId, initialize, existing);
         this.userId = userId;
         this.siteId = siteId;
     }
@@ -55,6 +74,18 @@ public class Site extends CloudResource implements Deletable, Mutable {
         this(userId, siteId, true, null);
     }
 
+    /**
+     * Creates a Site object.
+     *
+     * @param client The client this site makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of the user this site belongs to.
+     * @param siteId ID of an existing site.
+     */
+    public Site(CloudClient client, String userId, String siteId) throws CloudException {
+        this(client, userId, siteId, true, null);
+    }
+
     /**
      * Extracts properties from Site's unique JSON response format.
      *
@@ -68,25 +99,41 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * Publishes a site.
     */
     public void publish() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         client.post(this.url + "/publish");
     }
 
+    /**
+    * Publishes a site without blocking.
+    */
+    public CompletableFuture<Void> publishAsync() {
+        CloudClient client = getClient();
+        return client.postAsync(this.url + "/publish").thenAccept(res -> {});
+    }
+
     /**
     * Unpublishes a site.
     */
     public void unpublish() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         client.post(this.url + "/unpublish");
     }
 
+    /**
+    * Unpublishes a site without blocking.
+    */
+    public CompletableFuture<Void> unpublishAsync() {
+        CloudClient client = getClient();
+        return client.postAsync(this.url + "/unpublish").thenAccept(res -> {});
+    }
+
     /**
      * Generates a one-time login link for the user that
      * automatically redirects them to the site editor for
      * this site.
      */
     public String loginLink() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/loginLink");
         return res.body.getAsJsonObject().get("link").getAsString();
     }
@@ -114,7 +161,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
         data.put("publish_password", password);
         data.put("publish_path", path);
 
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/setPublishCredentials", data);
     }
 
@@ -128,7 +175,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
         HashMap<String, Object> data = new HashMap<String, Object>();
         data.put("domain", domain);
 
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/restore", data);
     }
 
@@ -136,7 +183,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
      * Enables a site, allowing it to be edited.
      */
     public void enable() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         client.post(this.url + "/enable");
     }
 
@@ -146,7 +193,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
      * accessing it through the editor.
      */
     public void disable() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         client.post(this.url + "/disable");
     }
 
@@ -154,9 +201,9 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * Gets the Plan assigned to the site.
     */
     public Plan getPlan() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/plan");
-        return Plan.arrayFromJson(new String[]{}, res.body).get(0);
+        return Plan.arrayFromJson(this.client, new String[]{}, res.body).get(0);
     }
 
     /**
@@ -170,7 +217,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
         data.put("plan_id", planId);
         data.put("term", term);
 
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/plan", data);
     }
 
@@ -195,20 +242,32 @@ public class Site extends CloudResource implements Deletable, Mutable {
         data.put("theme_id", themeId);
         data.put("is_custom", isCustom);
 
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/theme", data);
     }
 
 
     //Blog methods
+    /**
+     * Returns a CloudList of Blogs belonging to this site.
+     *
+     * @param searchParams Search query parameters. See the API documentation
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
+     */
+    public CloudList<Blog> listBlogs(HashMap<String, Object> searchParams)
+            throws CloudException {
+        CloudClient client = getClient();
+        CloudResponse res = client.get(this.url + "/blog", searchParams);
+        return new CloudList<Blog>(res, new String[]{this.userId, this.siteId},
+            (ids, json) -> Blog.arrayFromJson(this.client, ids, json));
+    }
+
     /**
     * Reurns a CloudList of Blogs belonging to this site.
     */
     public CloudList<Blog> listBlogs() throws CloudException {
-        CloudClient client = CloudClient.getClient();
-        CloudResponse res = client.get(this.url + "/blog");
-        return new CloudList<Blog>(res,
-            new String[]{this.userId, this.siteId}, Blog::arrayFromJson);
+        return listBlogs(new HashMap<String, Object>());
     }
 
     /**
@@ -218,7 +277,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * @param blogId ID of the blog to return.
     */
     public Blog getBlog(String blogId) throws CloudException {
-        return new Blog(this.userId, this.siteId, blogId);
+        return new Blog(this.client, this.userId, this.siteId, blogId);
     }
 
 
@@ -227,14 +286,15 @@ public class Site extends CloudResource implements Deletable, Mutable {
      * Returns a CloudList of Forms on this Site.
      *
      * @param searchParams Search query parameters. See the API documentation
-     *              for valid parameters.
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
      */
     public CloudList<Form> listForms(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/form", searchParams);
-        return new CloudList<Form>(res,
-            new String[]{this.userId, this.siteId}, Form::arrayFromJson);
+        return new CloudList<Form>(res, new String[]{this.userId, this.siteId},
+            (ids, json) -> Form.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -251,7 +311,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * @param formId ID of the form to return.
     */
     public Form getForm(String formId) throws CloudException {
-        return new Form(this.userId, this.siteId, formId);
+        return new Form(this.client, this.userId, this.siteId, formId);
     }
 
 
@@ -260,14 +320,15 @@ public class Site extends CloudResource implements Deletable, Mutable {
      * Returns a CloudList of Pages on this Site.
      *
      * @param searchParams Search query parameters. See the API documentation
-     *              for valid parameters.
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
      */
     public CloudList<Page> listPages(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/page", searchParams);
-        return new CloudList<Page>(res,
-            new String[]{this.userId, this.siteId}, Page::arrayFromJson);
+        return new CloudList<Page>(res, new String[]{this.userId, this.siteId},
+            (ids, json) -> Page.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -284,7 +345,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * @param pageId ID of the page to return.
     */
     public Page getPage(String pageId) throws CloudException {
-        return new Page(this.userId, this.siteId, pageId);
+        return new Page(this.client, this.userId, this.siteId, pageId);
     }
 
 
@@ -293,14 +354,15 @@ public class Site extends CloudResource implements Deletable, Mutable {
      * Returns a CloudList of Groups on this Site.
      *
      * @param searchParams Search query parameters. See the API documentation
-     *              for valid parameters.
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
      */
     public CloudList<Group> listGroups(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/group", searchParams);
-        return new CloudList<Group>(res,
-            new String[]{this.userId, this.siteId}, Group::arrayFromJson);
+        return new CloudList<Group>(res, new String[]{this.userId, this.siteId},
+            (ids, json) -> Group.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -317,7 +379,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * @param groupId ID of the group to return.
     */
     public Group getGroup(String groupId) throws CloudException {
-        return new Group(this.userId, this.siteId, groupId);
+        return new Group(this.client, this.userId, this.siteId, groupId);
     }
 
     /**
@@ -329,10 +391,10 @@ public class Site extends CloudResource implements Deletable, Mutable {
         HashMap<String, Object> data = new HashMap<String, Object>();
         data.put("name", name);
 
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/group", data);
         JsonObject group = res.body.getAsJsonObject();
-        return new Group(this.userId, this.siteId, group.get("group_id").getAsString(),
+        return new Group(this.client, this.userId, this.siteId, group.get("group_id").getAsString(),
             false, group);
     }
 
@@ -342,14 +404,15 @@ public class Site extends CloudResource implements Deletable, Mutable {
      * Returns a CloudList of Members on this Site.
      *
      * @param searchParams Search query parameters. See the API documentation
-     *              for valid parameters.
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
      */
     public CloudList<Member> listMembers(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/member", searchParams);
-        return new CloudList<Member>(res,
-            new String[]{this.userId, this.siteId}, Member::arrayFromJson);
+        return new CloudList<Member>(res, new String[]{this.userId, this.siteId},
+            (ids, json) -> Member.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -359,6 +422,26 @@ public class Site extends CloudResource implements Deletable, Mutable {
         return listMembers(new HashMap<String, Object>());
     }
 
+    /**
+     * Returns a Publisher of the Members on this Site. Pages are
+     * requested asynchronously as the subscriber requests items.
+     *
+     * @param searchParams Search query parameters. See the API documentation
+     *              for valid parameters.
+     */
+    public CloudPublisher<Member> listMembersPublisher(HashMap<String, Object> searchParams) {
+        return new CloudPublisher<Member>(this.client, this.url + "/member", searchParams,
+            new String[]{this.userId, this.siteId},
+            (ids, json) -> Member.arrayFromJson(this.client, ids, json));
+    }
+
+    /**
+     * Returns a Publisher of the Members on this Site.
+     */
+    public CloudPublisher<Member> listMembersPublisher() {
+        return listMembersPublisher(new HashMap<String, Object>());
+    }
+
     /**
     * Returns the Member with the given ID. Must belong to
     * this site.
@@ -366,7 +449,7 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * @param memberId ID of the member to return.
     */
     public Member getMember(String memberId) throws CloudException {
-        return new Member(this.userId, this.siteId, memberId);
+        return new Member(this.client, this.userId, this.siteId, memberId);
     }
 
     /**
@@ -376,11 +459,12 @@ public class Site extends CloudResource implements Deletable, Mutable {
     * @param data The properties of the new group.
     */
     public Member createMember(HashMap<String, Object> data) throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/member", data);
 
         JsonObject member = res.body.getAsJsonObject();
         return new Member(
+            this.client,
             this.userId,
             this.siteId,
             member.get("member_id").getAsString(),
@@ -403,12 +487,30 @@ public class Site extends CloudResource implements Deletable, Mutable {
      */
     public static ArrayList<Site> arrayFromJson(String[] ids, JsonElement json)
             throws CloudException {
+        return arrayFromJson(null, ids, json);
+    }
+
+    /**
+     * Converts a JSON response into an array of
+     * Site objects. Because the formatting of responses
+     * and the IDS needed for instantiation are
+     * inconsistent across endpoints, this is handled
+     * on a class-by-class basis.
+     *
+     * @param client The client the Sites make requests with, or null
+     *              to use the default client.
+     * @param ids The IDs necessary to construct the Sites
+     *              (userId).
+     * @param json JSON representation of a list of sites.
+     */
+    public static ArrayList<Site> arrayFromJson(CloudClient client, String[] ids,
+            JsonElement json) throws CloudException {
         ArrayList<Site> siteList = new ArrayList<Site>();
         JsonArray sites = json.getAsJsonObject().getAsJsonArray("sites");
 
         for (JsonElement site : sites) {
             String id = site.getAsJsonObject().get("site_id").getAsString();
-            siteList.add(new Site(ids[0], id, false, site.getAsJsonObject()));
+            siteList.add(new Site(client, ids[0], id, false, site.getAsJsonObject()));
         }
 
         return siteList;
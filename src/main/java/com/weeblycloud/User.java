@@ -3,6 +3,8 @@ package com.weeblycloud;
 import com.weeblycloud.utils.*;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
@@ -25,7 +27,24 @@ public class User extends CloudResource implements Mutable {
      */
     public User(String userId, boolean initialize, JsonObject existing)
             throws CloudException {
-        super("user/"+userId, initialize, existing);
+        this(null, userId, initialize, existing);
+    }
+
+    /**
+     * Creates a User object.
+     *
+     * @param client The client this user makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of an existing user.
+     * @param initialize Whether or not to retrieve this user's properties
+     *          from the server upon instantiation. The properties can later
+     *          be retrieved by calling get().
+     * @param existing JsonObject to use as the User's properties if initialize
+     *          is false.
+     */
+    public User(CloudClient client, String userId, boolean initialize, JsonObject existing)
+            throws CloudException {
+        super(client, "user/"+userId, initialize, existing);
         this.userId = userId;
     }
 
@@ -51,6 +70,17 @@ public class User extends CloudResource implements Mutable {
         this(userId, true, null);
     }
 
+    /**
+     * Creates a User object.
+     *
+     * @param client The client this user makes requests with, or null
+     *          to use the default client.
+     * @param userId ID of an existing user.
+     */
+    public User(CloudClient client, String userId) throws CloudException {
+        this(client, userId, true, null);
+    }
+
     /**
      * Extracts properties from User's unique JSON response format.
      *
@@ -67,7 +97,7 @@ public class User extends CloudResource implements Mutable {
      * their account is automatically enabled.
      */
     public void enable() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         client.post(this.url + "/enable");
     }
 
@@ -76,7 +106,7 @@ public class User extends CloudResource implements Mutable {
      * logging in or editing their sites.
      */
     public void disable() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         client.post(this.url + "/disable");
     }
 
@@ -85,7 +115,7 @@ public class User extends CloudResource implements Mutable {
      * if the user has been disabled.
      */
     public String loginLink() throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.post(this.url + "/loginLink");
         return res.body.getAsJsonObject().get("link").getAsString();
     }
@@ -101,7 +131,7 @@ public class User extends CloudResource implements Mutable {
      */
     public ArrayList<JsonObject> getAvailableThemes(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/theme", searchParams);
         ArrayList<JsonObject> themeList = new ArrayList<JsonObject>();
         JsonArray themes = res.body.getAsJsonObject().getAsJsonArray("data");
@@ -131,7 +161,7 @@ public class User extends CloudResource implements Mutable {
      *              Must be publicly accessible.
      */
     public void createCustomTheme(String name, String zipUrl) throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         HashMap<String, Object> data = new HashMap<String, Object>();
         data.put("name", name);
         data.put("zip_url", zipUrl);
@@ -147,14 +177,37 @@ public class User extends CloudResource implements Mutable {
      */
     public Site createSite(String domain, HashMap<String, Object> data)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         data.put("domain", domain);
         CloudResponse res = client.post(this.url+"/site",data);
         JsonObject siteData = res.body.getAsJsonObject().getAsJsonObject("site");
-        return new Site(this.userId, siteData.get("site_id").getAsString(), false, siteData);
+        return new Site(this.client, this.userId, siteData.get("site_id").getAsString(), false, siteData);
 
     }
 
+    /**
+     * Creates a new Site belonging to this user in the database
+     * without blocking.
+     *
+     * @param domain The domain of the new site.
+     * @param data Hash map of site properties. For the allowed
+     *          properties, see the API documentation.
+     */
+    public CompletableFuture<Site> createSiteAsync(String domain,
+            HashMap<String, Object> data) {
+        CloudClient client = getClient();
+        data.put("domain", domain);
+        return client.postAsync(this.url+"/site", data).thenApply(res -> {
+            JsonObject siteData = res.body.getAsJsonObject().getAsJsonObject("site");
+            try {
+                return new Site(this.client, this.userId, siteData.get("site_id").getAsString(),
+                    false, siteData);
+            } catch (CloudException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
     /**
      * Creates a new Site belonging to this user in the database.
      *
@@ -168,13 +221,15 @@ public class User extends CloudResource implements Mutable {
      * Returns a CloudList of Sites belonging to this user.
      *
      * @param searchParams Search query parameters. See the API documentation
-     *              for valid parameters.
+     *              for valid parameters. "limit" sets the number of items
+     *              per page; see CloudList.setPageSize to change it later.
      */
     public CloudList<Site> listSites(HashMap<String, Object> searchParams)
             throws CloudException {
-        CloudClient client = CloudClient.getClient();
+        CloudClient client = getClient();
         CloudResponse res = client.get(this.url + "/site", searchParams);
-        return new CloudList<Site>(res, new String[]{this.userId}, Site::arrayFromJson);
+        return new CloudList<Site>(res, new String[]{this.userId},
+            (ids, json) -> Site.arrayFromJson(this.client, ids, json));
     }
 
     /**
@@ -184,12 +239,32 @@ public class User extends CloudResource implements Mutable {
         return listSites(new HashMap<String, Object>());
     }
 
+    /**
+     * Returns a Publisher of the Sites belonging to this user. Pages are
+     * requested asynchronously as the subscriber requests items.
+     *
+     * @param searchParams Search query parameters. See the API documentation
+     *              for valid parameters.
+     */
+    public CloudPublisher<Site> listSitesPublisher(HashMap<String, Object> searchParams) {
+        return new CloudPublisher<Site>(this.client, this.url + "/site", searchParams,
+            new String[]{this.userId},
+            (ids, json) -> Site.arrayFromJson(this.client, ids, json));
+    }
+
+    /**
+     * Returns a Publisher of the Sites belonging to this user.
+     */
+    public CloudPublisher<Site> listSitesPublisher() {
+        return listSitesPublisher(new HashMap<String, Object>());
+    }
+
     /**
     * Get the site with the specified ID. The site must belong to this user.
     *
     * @param siteId The ID of the site to retrieve.
     */
     public Site getSite(String siteId) throws CloudException {
-        return new Site(this.userId, siteId);
+        return new Site(this.client, this.userId, siteId);
     }
 }
@@ -0,0 +1,269 @@
+package com.weeblycloud.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests a CloudClient sends, both by rate and by the number
+ * of requests in flight. The rate is limited with a token bucket. The
+ * concurrency limit adapts to the API: it grows by one request per
+ * window of successful responses (additive increase) and is halved when
+ * the API responds 429 or 503, or when latency rises well above the
+ * usual latency of the endpoint (multiplicative decrease). The usual
+ * latency is kept per endpoint, so a slow endpoint does not look like
+ * a slowdown of a fast one. A Retry-After sent
+ * with a 429 or 503 pauses all requests until it has passed.
+ */
+public class AdaptiveLimiter {
+    /**
+     * Milliseconds to pause after a 429 or 503 without a Retry-After header.
+     */
+    public static final long DEFAULT_RETRY_AFTER = 1000;
+
+    /**
+     * Latency, as a multiple of the usual latency of the endpoint,
+     * above which the concurrency limit is decreased.
+     */
+    public static final double LATENCY_TOLERANCE = 2.0;
+
+    private final double rate;
+    private final double burst;
+    private final int maxConcurrency;
+
+    private double tokens;
+    private long lastRefill;
+
+    private double limit;
+    private int inFlight;
+    private long blockedUntil;
+    private long lastDecrease;
+    private final HashMap<String,Long> baselines;
+
+    private final ArrayDeque<CompletableFuture<Void>> waiters;
+    private ScheduledExecutorService scheduler;
+    private boolean drainScheduled;
+
+    /**
+     * Creates an AdaptiveLimiter.
+     *
+     * @param requestsPerSecond The maximum sustained request rate, or 0
+     *              for no rate limit.
+     * @param burst The number of requests that can be sent at once
+     *              after a quiet period.
+     * @param initialConcurrency The starting concurrency limit.
+     * @param maxConcurrency The highest the concurrency limit can grow.
+     */
+    public AdaptiveLimiter(double requestsPerSecond, int burst,
+            int initialConcurrency, int maxConcurrency) {
+        this.rate = requestsPerSecond;
+        this.burst = Math.max(burst, 1);
+        this.maxConcurrency = Math.max(maxConcurrency, 1);
+        this.tokens = this.burst;
+        this.lastRefill = System.nanoTime();
+        this.limit = Math.min(Math.max(initialConcurrency, 1), this.maxConcurrency);
+        this.blockedUntil = lastRefill;
+        this.lastDecrease = lastRefill;
+        this.waiters = new ArrayDeque<CompletableFuture<Void>>();
+        this.baselines = new HashMap<String,Long>();
+    }
+
+    /**
+     * Waits until a request may be sent. Every acquire must be
+     * followed by a call to release.
+     */
+    public void acquire() {
+        CompletableFuture<Void> permit = acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            //Give the permit back if it was granted in the meantime
+            if (!permit.cancel(false)) {
+                release();
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns a future that completes when a request may be sent. Every
+     * completed acquire must be followed by a call to release.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> permit = new CompletableFuture<Void>();
+        synchronized (this) {
+            waiters.add(permit);
+        }
+        drain();
+        return permit;
+    }
+
+    /**
+     * Releases a permit after its request has completed.
+     */
+    public void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    /**
+     * Adjusts the limits to the outcome of a request, comparing its
+     * latency with that of all requests.
+     *
+     * @param statusCode The HTTP status code of the response.
+     * @param retryAfter Milliseconds from the Retry-After header,
+     *              or -1 if there was none.
+     * @param latency Nanoseconds the request took.
+     */
+    public void onResponse(int statusCode, long retryAfter, long latency) {
+        onResponse("", statusCode, retryAfter, latency);
+    }
+
+    /**
+     * Adjusts the limits to the outcome of a request, comparing its
+     * latency with that of earlier requests to the same endpoint.
+     *
+     * @param endpoint The endpoint of the request, e.g. its method and
+     *              endpoint template (see Endpoints.template).
+     * @param statusCode The HTTP status code of the response.
+     * @param retryAfter Milliseconds from the Retry-After header,
+     *              or -1 if there was none.
+     * @param latency Nanoseconds the request took.
+     */
+    public synchronized void onResponse(String endpoint, int statusCode,
+            long retryAfter, long latency) {
+        long now = System.nanoTime();
+
+        if (statusCode == 429 || statusCode == 503) {
+            long pause = TimeUnit.MILLISECONDS.toNanos(
+                (retryAfter >= 0) ? retryAfter : DEFAULT_RETRY_AFTER);
+            if (now + pause - blockedUntil > 0) {
+                blockedUntil = now + pause;
+            }
+            decrease(now, latency);
+            return;
+        }
+
+        Long previous = baselines.get(endpoint);
+        long baseline;
+        if (previous == null || latency < previous) {
+            baseline = latency;
+        } else {
+            //Let the baseline drift up slowly so it follows real changes
+            baseline = previous + (latency - previous) / 100;
+        }
+        baselines.put(endpoint, baseline);
+
+        if (latency > baseline * LATENCY_TOLERANCE) {
+            decrease(now, latency);
+        } else {
+            limit = Math.min(limit + 1 / limit, maxConcurrency);
+        }
+    }
+
+    /**
+     * The current concurrency limit.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * The number of requests in flight.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Halves the concurrency limit, at most once per request latency so
+     * that one burst of slow or throttled responses counts once.
+     */
+    private void decrease(long now, long latency) {
+        if (now - lastDecrease < latency) {
+            return;
+        }
+        lastDecrease = now;
+        limit = Math.max(limit / 2, 1);
+    }
+
+    /**
+     * Hands out permits to waiters while the limits allow, and schedules
+     * another attempt if waiters are held back by the rate or a pause.
+     */
+    private void drain() {
+        ArrayList<CompletableFuture<Void>> granted = new ArrayList<CompletableFuture<Void>>();
+        long delay = 0;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                if (waiters.peek().isDone()) {
+                    //Cancelled while waiting
+                    waiters.poll();
+                    continue;
+                } else if (now - blockedUntil < 0) {
+                    delay = blockedUntil - now;
+                    break;
+                } else if (rate > 0 && tokens < 1) {
+                    delay = (long) ((1 - tokens) / rate * 1e9);
+                    break;
+                }
+
+                if (rate > 0) {
+                    tokens--;
+                }
+                inFlight++;
+                granted.add(waiters.poll());
+            }
+
+            if (delay > 0 && !drainScheduled) {
+                drainScheduled = true;
+                getScheduler().schedule(() -> {
+                    synchronized (this) {
+                        drainScheduled = false;
+                    }
+                    drain();
+                }, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        for (CompletableFuture<Void> permit : granted) {
+            if (!permit.complete(null)) {
+                release();
+            }
+        }
+    }
+
+    private void refill(long now) {
+        if (rate > 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) / 1e9 * rate);
+        }
+        lastRefill = now;
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "weebly-cloud-limiter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            scheduler = executor;
+        }
+        return scheduler;
+    }
+}
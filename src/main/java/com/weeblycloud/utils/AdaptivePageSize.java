@@ -0,0 +1,160 @@
+package com.weeblycloud.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how many items to request per page when loading the pages of
+ * a listing. The page size doubles after each full page that loaded
+ * faster than the target latency, as long as a page of the doubled size
+ * is expected to stay under the maximum page size in bytes. It stops
+ * growing at maxLimit, or at the largest limit the API accepts if the
+ * API returns fewer items per page than were requested.
+ *
+ * Because pages are numbered by their size, a page of a new size may
+ * start before the items loaded so far end; the items it repeats are
+ * dropped. To repeat fewer items, the current size is kept while the
+ * next multiple of the new size is at most one page away, so doubling
+ * the size takes at most one extra page to align and repeats nothing.
+ */
+public class AdaptivePageSize {
+    private final int maxLimit;
+    private final long targetLatency;
+    private final long maxPageBytes;
+
+    /**
+     * Creates an AdaptivePageSize.
+     *
+     * @param maxLimit The largest page size to request.
+     * @param targetLatency The page latency in milliseconds above which
+     *              the page size stops growing.
+     * @param maxPageBytes The largest expected page body in bytes.
+     */
+    public AdaptivePageSize(int maxLimit, long targetLatency, long maxPageBytes) {
+        this.maxLimit = Math.max(maxLimit, 1);
+        this.targetLatency = targetLatency;
+        this.maxPageBytes = maxPageBytes;
+    }
+
+    /**
+     * Creates an AdaptivePageSize that grows pages up to 1000 items,
+     * 500 milliseconds and 1MB.
+     */
+    public AdaptivePageSize() {
+        this(1000, 500, 1024 * 1024);
+    }
+
+    /**
+     * Tracks the page size for one listing.
+     */
+    public class Sizer {
+        private int limit;
+        private int previous;
+        private int target;
+        private int max;
+
+        Sizer(int limit, int target) {
+            this.limit = limit;
+            this.previous = limit;
+            this.target = target;
+            this.max = maxLimit;
+        }
+
+        /**
+         * Returns the page size to request the page at an offset with.
+         * The offset may not be a multiple of the page size, in which
+         * case the page holding the offset is requested and the items on
+         * it before the offset are dropped.
+         *
+         * @param offset The number of items before the page.
+         */
+        public int limitAt(int offset) {
+            int misaligned = offset % target;
+            if (target != limit && (misaligned == 0 || target - misaligned > limit)) {
+                previous = limit;
+                limit = target;
+            }
+            return limit;
+        }
+
+        /**
+         * Whether the API returned a page with fewer items per page than
+         * requested. The page does not start at the requested offset and
+         * must be requested again, with the page size from limitAt().
+         *
+         * @param requested The page size the page was requested with.
+         * @param res The page.
+         */
+        public boolean isClamped(int requested, CloudResponse res) {
+            if (res.limit <= 0 || res.limit >= requested) {
+                return false;
+            }
+
+            //The API does not accept page sizes this large
+            max = res.limit;
+            if (limit == requested) {
+                limit = previous;
+            }
+            target = (max % limit == 0) ? max : limit;
+            return true;
+        }
+
+        /**
+         * Adjusts the page size to a loaded page.
+         *
+         * @param requested The page size the page was requested with.
+         * @param res The page.
+         * @param items The number of items on the page.
+         * @param latency Nanoseconds the page took to load.
+         */
+        public void onPage(int requested, CloudResponse res, int items, long latency) {
+            if (requested != target || items < requested) {
+                return;
+            }
+
+            long bytesPerItem = (res.contentLength > 0) ? res.contentLength / items : 0;
+            if (TimeUnit.NANOSECONDS.toMillis(latency) <= targetLatency
+                    && (long) requested * 2 <= max
+                    && bytesPerItem * requested * 2 <= maxPageBytes) {
+                target = requested * 2;
+            }
+        }
+
+        /**
+         * The page size pages are currently requested with.
+         */
+        public int getLimit() {
+            return limit;
+        }
+    }
+
+    /**
+     * Starts tracking the page size for a listing.
+     *
+     * @param limit The page size the listing was first loaded with.
+     */
+    public Sizer start(int limit) {
+        return start(limit, limit);
+    }
+
+    /**
+     * Starts tracking the page size for a listing, moving to the given
+     * page size and growing from there.
+     *
+     * @param limit The page size the listing currently loads pages with.
+     * @param pageSize The page size to move to.
+     */
+    Sizer start(int limit, int pageSize) {
+        return new Sizer(Math.max(limit, 1), Math.max(pageSize, 1));
+    }
+
+    /**
+     * Returns a Sizer that moves to a fixed page size and does not grow.
+     *
+     * @param limit The page size the listing was first loaded with.
+     * @param pageSize The page size to move to.
+     */
+    static Sizer fixed(int limit, int pageSize) {
+        pageSize = Math.max(pageSize, 1);
+        return new AdaptivePageSize(pageSize, -1, 0).new Sizer(Math.max(limit, 1), pageSize);
+    }
+}
@@ -0,0 +1,250 @@
+package com.weeblycloud.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * Runs a blocking call, such as fetching a resource, for every item of a
+ * collection at once. The calls of one map run as a scope: map returns
+ * only when every call has finished, and if one fails or the deadline
+ * passes, the calls still running are cancelled and map throws.
+ * Requests a call makes through a CloudClient, blocking or asynchronous,
+ * time out at the deadline and are aborted if the calls are cancelled,
+ * so a call blocked reading a response does not outlive map. Retries
+ * do not wait past the deadline.
+ *
+ * On Java 21 and later the calls run on virtual threads, so thousands of
+ * blocking calls can be made without sizing a thread pool. On earlier
+ * versions they run on a pool of parallelism platform threads.
+ */
+public final class Bulk {
+    /**
+     * Code of the CloudException thrown when the deadline passes.
+     */
+    public static final int DEADLINE_CODE = 997;
+
+    /**
+     * Default number of calls in flight at once, matching the
+     * connections a client keeps to the API.
+     */
+    public static final int DEFAULT_PARALLELISM = CloudClient.MAX_CONNECTIONS_PER_ROUTE;
+
+    private Bulk() {}
+
+    /**
+     * A blocking call made for one item.
+     */
+    public interface Call<T, R> {
+        R call(T item) throws CloudException;
+    }
+
+    /**
+     * The deadline and in-flight requests of the calls of one map.
+     * CloudClient caps the timeouts of requests made on a thread running
+     * a call to the deadline, and registers them so they can be aborted.
+     */
+    static final class Scope {
+        private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<Scope>();
+
+        private final long deadline;
+        private final Set<HttpUriRequest> requests =
+            ConcurrentHashMap.<HttpUriRequest>newKeySet();
+        private volatile boolean aborted;
+
+        Scope(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * The scope of the call running on this thread, or null.
+         */
+        static Scope current() {
+            return CURRENT.get();
+        }
+
+        /**
+         * Makes scope the scope of this thread, so requests made on it
+         * for a call running elsewhere still keep to its deadline.
+         *
+         * @param scope The scope, or null for none.
+         * @return The scope it replaces, or null.
+         */
+        static Scope enter(Scope scope) {
+            Scope previous = CURRENT.get();
+            if (scope == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(scope);
+            }
+            return previous;
+        }
+
+        /**
+         * Milliseconds until the deadline, at least 1. Rounded up with a
+         * millisecond to spare, so that a timeout capped to it expires
+         * after the deadline rather than just before.
+         */
+        int remainingMillis() {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 2;
+            return (int) Math.max(Math.min(remaining, Integer.MAX_VALUE), 1);
+        }
+
+        /**
+         * Whether the deadline has passed.
+         */
+        boolean isExpired() {
+            return deadline - System.nanoTime() <= 0;
+        }
+
+        /**
+         * Registers a request about to be sent, failing if the calls have
+         * been cancelled or the deadline has passed.
+         */
+        void register(HttpUriRequest request) throws CloudException {
+            requests.add(request);
+            if (aborted || isExpired()) {
+                requests.remove(request);
+                throw new CloudException("Deadline exceeded", DEADLINE_CODE);
+            }
+        }
+
+        void unregister(HttpUriRequest request) {
+            requests.remove(request);
+        }
+
+        /**
+         * Aborts the requests in flight and any made afterwards.
+         */
+        void abort() {
+            aborted = true;
+            for (HttpUriRequest request : requests) {
+                request.abort();
+            }
+        }
+    }
+
+    /**
+     * Whether calls run on virtual threads.
+     */
+    public static boolean isVirtual() {
+        return Threads.isVirtual();
+    }
+
+    /**
+     * Returns an executor for running blocking calls: one virtual thread
+     * per task on Java 21 and later, or up to parallelism platform
+     * threads on earlier versions.
+     *
+     * @param parallelism The number of platform threads, if virtual
+     *              threads are not available.
+     */
+    public static ExecutorService newExecutor(int parallelism) {
+        return Threads.newExecutor(Math.max(parallelism, 1), "weebly-cloud-bulk");
+    }
+
+    /**
+     * Calls call for every item, with up to DEFAULT_PARALLELISM calls at once.
+     *
+     * @param items The items to call call for.
+     * @param call The call to make for each item.
+     * @param timeout The deadline for all of the calls.
+     * @param unit The unit of timeout.
+     * @return The results, in the order of items.
+     */
+    public static <T, R> List<R> map(Iterable<T> items, Call<T, R> call,
+            long timeout, TimeUnit unit) throws CloudException {
+        return map(items, call, DEFAULT_PARALLELISM, timeout, unit);
+    }
+
+    /**
+     * Calls call for every item, with up to parallelism calls at once.
+     * If a call fails, or the deadline passes, the other calls are
+     * cancelled and the failure is thrown.
+     *
+     * @param items The items to call call for.
+     * @param call The call to make for each item.
+     * @param parallelism The most calls to make at once.
+     * @param timeout The deadline for all of the calls.
+     * @param unit The unit of timeout.
+     * @return The results, in the order of items.
+     */
+    public static <T, R> List<R> map(Iterable<T> items, Call<T, R> call,
+            int parallelism, long timeout, TimeUnit unit) throws CloudException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        parallelism = Math.max(parallelism, 1);
+
+        ExecutorService executor = newExecutor(parallelism);
+        CompletionService<R> completion = new ExecutorCompletionService<R>(executor);
+        //Virtual threads are not pooled, so the number of calls in flight
+        //is bounded here instead. A platform pool bounds it by its size.
+        Semaphore permits = isVirtual() ? new Semaphore(parallelism) : null;
+        Scope scope = new Scope(deadline);
+        ArrayList<Future<R>> futures = new ArrayList<Future<R>>();
+
+        try {
+            for (T item : items) {
+                futures.add(completion.submit(() -> {
+                    if (permits != null) {
+                        permits.acquire();
+                    }
+                    Scope.CURRENT.set(scope);
+                    try {
+                        return call.call(item);
+                    } finally {
+                        Scope.CURRENT.remove();
+                        if (permits != null) {
+                            permits.release();
+                        }
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                long remaining = deadline - System.nanoTime();
+                Future<R> done = completion.poll(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new CloudException("Deadline exceeded", DEADLINE_CODE);
+                }
+                done.get();
+            }
+
+            ArrayList<R> results = new ArrayList<R>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            //Cancel the calls still running when the scope is left early.
+            //Interrupting does not unblock socket reads, so abort those.
+            scope.abort();
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.weeblycloud.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops sending requests to an endpoint that keeps failing. After
+ * failureThreshold consecutive failures the breaker opens, and requests
+ * fail immediately for openTime milliseconds. It then lets a single probe
+ * request through (half-open): if the probe succeeds the breaker closes,
+ * otherwise it opens again.
+ *
+ * Timeouts, connection errors and 5xx responses count as failures. Other
+ * errors returned by the API show the endpoint is responding and count
+ * as successes. Requests that were cancelled or interrupted, or failed
+ * before reaching the endpoint, count as neither.
+ */
+public class CircuitBreaker {
+    /**
+     * The error code of the CloudException thrown when a request is
+     * rejected because the breaker is open.
+     */
+    public static final int OPEN_CODE = 998;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openTime;
+
+    private State state;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * Creates a CircuitBreaker.
+     *
+     * @param failureThreshold The number of consecutive failures
+     *              that opens the breaker.
+     * @param openTime Milliseconds the breaker stays open before
+     *              letting a probe request through.
+     */
+    public CircuitBreaker(int failureThreshold, long openTime) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openTime = TimeUnit.MILLISECONDS.toNanos(openTime);
+        this.state = State.CLOSED;
+    }
+
+    /**
+     * Whether a request may be sent. If this returns true, the outcome
+     * must be reported with onSuccess, onFailure or onAborted.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openTime) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Records a request that succeeded.
+     */
+    public synchronized void onSuccess() {
+        failures = 0;
+        probing = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a request that failed.
+     */
+    public synchronized void onFailure() {
+        failures++;
+        probing = false;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records a request that ended without an outcome, such as one that
+     * was cancelled or interrupted. It says nothing about the endpoint,
+     * so only frees the probe slot for another request.
+     */
+    public synchronized void onAborted() {
+        probing = false;
+    }
+
+    /**
+     * Records the outcome of a request.
+     *
+     * @param failure The exception the request failed with, or null
+     *              if it succeeded.
+     */
+    public void record(Throwable failure) {
+        if (failure instanceof java.util.concurrent.CompletionException
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+
+        if (failure instanceof CloudException
+                && ((CloudException) failure).getCode() == Bulk.DEADLINE_CODE) {
+            //Cut short by a bulk deadline, which says nothing of the endpoint
+            onAborted();
+        } else if (failure == null || (failure instanceof CloudException && !isFailure(failure))) {
+            onSuccess();
+        } else if (isFailure(failure)) {
+            onFailure();
+        } else {
+            //Cancelled, interrupted or failed before reaching the endpoint
+            onAborted();
+        }
+    }
+
+    /**
+     * The state of the breaker.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Whether an exception shows the endpoint is failing, rather than
+     * responding with an error.
+     *
+     * @param failure The exception a request failed with.
+     */
+    public static boolean isFailure(Throwable failure) {
+        if (failure instanceof CloudException) {
+            CloudException e = (CloudException) failure;
+            return e.getCode() == 999 || e.getStatusCode() >= 500;
+        }
+
+        Throwable cause = (failure instanceof java.io.IOException) ? failure : failure.getCause();
+        return cause instanceof java.io.IOException;
+    }
+}
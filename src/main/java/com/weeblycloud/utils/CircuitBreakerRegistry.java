@@ -0,0 +1,47 @@
+package com.weeblycloud.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one CircuitBreaker per endpoint template (see Endpoints.template),
+ * so a failing area of the API is cut off without affecting requests to
+ * other endpoints.
+ */
+public class CircuitBreakerRegistry {
+    private final int failureThreshold;
+    private final long openTime;
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers;
+
+    /**
+     * Creates a CircuitBreakerRegistry.
+     *
+     * @param failureThreshold The number of consecutive failures
+     *              that opens an endpoint's breaker.
+     * @param openTime Milliseconds a breaker stays open before
+     *              letting a probe request through.
+     */
+    public CircuitBreakerRegistry(int failureThreshold, long openTime) {
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+        this.breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+    }
+
+    /**
+     * Gets the breaker for an endpoint, creating it if needed.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     */
+    public CircuitBreaker get(String url) {
+        return breakers.computeIfAbsent(Endpoints.template(url),
+            template -> new CircuitBreaker(failureThreshold, openTime));
+    }
+
+    /**
+     * The breakers that have been created, by endpoint template.
+     */
+    public Map<String, CircuitBreaker> getBreakers() {
+        return Collections.unmodifiableMap(breakers);
+    }
+}
@@ -0,0 +1,158 @@
+package com.weeblycloud.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Records the requests made by a CloudClient: request and error counts,
+ * errors by CloudException code, bytes sent and received, and latency
+ * histograms. Metrics are kept per HTTP method and endpoint template
+ * (see Endpoints.template), e.g. "GET user/{id}/site/{id}/member".
+ */
+public class ClientMetrics implements ClientMetricsMXBean {
+    /**
+     * Metrics for one method and endpoint template.
+     */
+    private static class Endpoint {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final ConcurrentHashMap<Integer, LongAdder> errorsByCode =
+            new ConcurrentHashMap<Integer, LongAdder>();
+        final LongAdder bytesSent = new LongAdder();
+        final LongAdder bytesReceived = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    private final ConcurrentHashMap<String, Endpoint> endpoints;
+
+    private ObjectName objectName;
+
+    public ClientMetrics() {
+        this.endpoints = new ConcurrentHashMap<String, Endpoint>();
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param method The HTTP method of the request.
+     * @param url The endpoint url, not including domain or query string.
+     * @param latency Nanoseconds the request took.
+     * @param bytesSent The size of the request body.
+     * @param bytesReceived The size of the response body.
+     * @param failure The exception the request failed with, or null.
+     */
+    public void record(String method, String url, long latency,
+            long bytesSent, long bytesReceived, Throwable failure) {
+        String key = method + " " + Endpoints.template(url);
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(key, k -> new Endpoint());
+        }
+
+        endpoint.requests.increment();
+        endpoint.bytesSent.add(bytesSent);
+        endpoint.bytesReceived.add(bytesReceived);
+        endpoint.latency.record(latency / 1000);
+
+        if (failure != null) {
+            int code = (failure instanceof CloudException)
+                ? ((CloudException) failure).getCode()
+                : -1;
+            endpoint.errors.increment();
+            endpoint.errorsByCode.computeIfAbsent(code, c -> new LongAdder()).increment();
+        }
+    }
+
+    public long getRequestCount() {
+        long total = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            total += endpoint.requests.sum();
+        }
+        return total;
+    }
+
+    public long getErrorCount() {
+        long total = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            total += endpoint.errors.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Returns a snapshot of the metrics for each endpoint, by HTTP
+     * method and endpoint template.
+     */
+    public Map<String, EndpointStats> getEndpoints() {
+        TreeMap<String, EndpointStats> snapshot = new TreeMap<String, EndpointStats>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+
+            TreeMap<Integer, Long> errorsByCode = new TreeMap<Integer, Long>();
+            for (Map.Entry<Integer, LongAdder> error : endpoint.errorsByCode.entrySet()) {
+                errorsByCode.put(error.getKey(), error.getValue().sum());
+            }
+
+            snapshot.put(entry.getKey(), new EndpointStats(
+                entry.getKey(),
+                endpoint.requests.sum(),
+                endpoint.errors.sum(),
+                errorsByCode,
+                endpoint.bytesSent.sum(),
+                endpoint.bytesReceived.sum(),
+                endpoint.latency.getMean(),
+                endpoint.latency.getPercentile(50),
+                endpoint.latency.getPercentile(90),
+                endpoint.latency.getPercentile(99),
+                endpoint.latency.getPercentile(100)
+            ));
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * com.weeblycloud:type=ClientMetrics,name=[name].
+     *
+     * @param name The name to register the metrics under.
+     */
+    public synchronized void registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("com.weeblycloud:type=ClientMetrics,name="
+                + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if
+     * they were registered.
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        } finally {
+            objectName = null;
+        }
+    }
+}
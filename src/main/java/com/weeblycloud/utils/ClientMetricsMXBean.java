@@ -0,0 +1,28 @@
+package com.weeblycloud.utils;
+
+import java.util.Map;
+
+/**
+ * JMX view of a CloudClient's ClientMetrics.
+ */
+public interface ClientMetricsMXBean {
+    /**
+     * The total number of requests made.
+     */
+    public long getRequestCount();
+
+    /**
+     * The total number of requests that failed.
+     */
+    public long getErrorCount();
+
+    /**
+     * Metrics for each endpoint, by HTTP method and endpoint template.
+     */
+    public Map<String, EndpointStats> getEndpoints();
+
+    /**
+     * Discards all recorded metrics.
+     */
+    public void reset();
+}
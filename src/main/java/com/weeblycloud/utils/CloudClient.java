@@ -4,13 +4,8 @@ import com.google.gson.*;
 import java.util.*;
 import java.net.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import java.util.Base64;
-
-import java.math.BigInteger;
 
 import org.apache.http.*;
 import org.apache.http.client.*;
@@ -19,67 +14,1315 @@ import org.apache.http.client.methods.*;
 import org.apache.http.impl.client.*;
 import org.apache.http.util.EntityUtils;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.entity.*;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
- * CloudClient for accessing the Weebly Cloud API.
+ * CloudClient for accessing the Weebly Cloud API. A single pooled
+ * HTTP client is shared by every request made through the CloudClient,
+ * so connections to the API are kept alive and reused between calls.
+ *
+ * Resources use the default client set with setKeys, unless they were
+ * created with a client of their own. Clients with different keys,
+ * endpoints or connection limits can be created with a Builder and
+ * used side by side.
  */
-public class CloudClient {
+public class CloudClient implements Closeable {
+    /**
+     * Admin API key
+     */
+    public final String apiKey;
+
+    /**
+     * API secret key
+     */
+    public final String apiSecret;
+
+    /**
+     * API domain this client sends requests to.
+     */
+    private final String baseUrl;
+
+    /**
+     * URI scheme used to reach baseUrl.
+     */
+    private final String scheme;
+
+    /**
+     * Timeout in milliseconds for connecting to the API.
+     */
+    public static final int CONNECT_TIMEOUT = 3 * 1000;
+
+    /**
+     * Maximum number of pooled connections across all routes.
+     */
+    public static final int MAX_CONNECTIONS = 50;
+
+    /**
+     * Maximum number of pooled connections to a single route.
+     */
+    public static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    /**
+     * Time in milliseconds to keep an idle connection alive when the
+     * server does not send a Keep-Alive timeout of its own.
+     */
+    public static final long KEEP_ALIVE = 30 * 1000;
+
+    /**
+     * Time in milliseconds after which idle pooled connections are evicted.
+     */
+    public static final long MAX_IDLE_TIME = 60 * 1000;
+
+    /**
+     * Number of I/O dispatch threads used by the asynchronous client.
+     */
+    public static final int IO_THREADS = 2;
+
+    /**
+     * Default number of threads that run interceptors without an
+     * interceptAsync of their own for asynchronous requests.
+     */
+    public static final int INTERCEPTOR_THREADS =
+        Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Number of threads that complete asynchronous requests. Dependent
+     * stages that are not *Async run on these threads, so they should
+     * not block; pass an executor to the *Async stages for blocking work.
+     */
+    public static final int CALLBACK_THREADS =
+        Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Serializer for request bodies. Gson instances are thread-safe.
+     */
+    private static final Gson GSON = new GsonBuilder().create();
+
+    /**
+     * HTTP methods whose data is sent in the request body.
+     */
+    private static final Set<String> BODY_METHODS =
+        new HashSet<String>(Arrays.asList("POST", "PUT", "PATCH"));
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    /**
+     * HTTP methods that can safely be retried.
+     */
+    private static final Set<String> IDEMPOTENT_METHODS =
+        new HashSet<String>(Arrays.asList("GET", "PUT", "DELETE"));
+
+    /**
+     * Header carrying the idempotency key of a POST request.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Instance of CloudClient
+     */
+    private static volatile CloudClient instance;
+
+    /**
+     * Timeouts and connection limits of this client.
+     */
+    private final int connectTimeout;
+    private final int socketTimeout;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int interceptorThreads;
+
+    /**
+     * Pool of connections to the API shared by every request.
+     */
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    /**
+     * Long-lived HTTP client backed by connectionManager.
+     */
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * Non-blocking HTTP client used by the *Async methods. Created
+     * the first time an asynchronous request is made.
+     */
+    private volatile CloseableHttpAsyncClient asyncClient;
+
+    /**
+     * Whether close has been called. Guarded by this for writes, so
+     * that no asynchronous client is started after close.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Signs requests with apiSecret.
+     */
+    private final RequestSigner signer;
+
+    /**
+     * Cache of GET responses, or null if responses are not cached.
+     */
+    private volatile ResponseCache cache;
+
+    /**
+     * Keys of cached responses that are being refreshed in the background.
+     */
+    private Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * When paths were last invalidated by writes, so that responses
+     * to GETs that started before a write are not cached.
+     */
+    private final Invalidations invalidations = new Invalidations();
+
+    /**
+     * Limits the rate and concurrency of requests, or null if
+     * requests are not limited.
+     */
+    private volatile AdaptiveLimiter limiter;
+
+    /**
+     * Policy for retrying failed idempotent requests, or null if
+     * requests are not retried.
+     */
+    private volatile RetryPolicy retryPolicy;
+
+    /**
+     * Circuit breakers by endpoint template, or null if there are none.
+     */
+    private volatile CircuitBreakerRegistry circuitBreakers;
+
+    /**
+     * Metrics of the requests made, or null if they are not recorded.
+     */
+    private volatile ClientMetrics metrics;
+
+    /**
+     * Whether concurrent identical GET requests share one request.
+     */
+    private volatile boolean coalesceRequests = false;
+
+    /**
+     * Grows the page size of the lists this client returns, or null.
+     */
+    private volatile AdaptivePageSize adaptivePageSize;
+
+    /**
+     * Interceptors wrapping every request, in the order they are called.
+     * Replaced rather than modified, so a request sees a consistent list.
+     */
+    private volatile Interceptor[] interceptors = new Interceptor[0];
+
     /**
-     * API domain
+     * Runs blocking interceptors for asynchronous requests. Created the
+     * first time an interceptor without its own interceptAsync sees an
+     * asynchronous request.
      */
-    public static String BASE_URL = "api.weeblycloud.com/";
+    private volatile ExecutorService interceptorExecutor;
+
+    /**
+     * GET requests that are in progress, by url, parameters and headers.
+     */
+    private ConcurrentHashMap<String, Shared> inFlight =
+        new ConcurrentHashMap<String, Shared>();
+
+    /**
+     * A GET request in progress that identical requests can wait for.
+     */
+    private static class Shared {
+        /**
+         * The point in the sequence of invalidations the request started at.
+         */
+        final long started;
+        final CompletableFuture<CloudResponse> future;
+
+        Shared(long started) {
+            this.started = started;
+            this.future = new CompletableFuture<CloudResponse>();
+        }
+    }
+
+    /**
+     * Gets the instance of the CloudClient
+     */
+    public static CloudClient getClient() {
+        return instance;
+    }
+
+    /**
+     * Sets the instance of CloudClient using the API keys. Must
+     * be called before making a request. The previous instance is not
+     * closed.
+     *
+     * @param apiKey
+     * @param apiSecret
+     */
+    public static void setKeys(String apiKey, String apiSecret) {
+        setClient(new Builder(apiKey, apiSecret).build());
+    }
+
+    /**
+     * Sets the instance of CloudClient used by resources that were not
+     * created with a client of their own. The previous instance is not
+     * closed, since lists and resources may still be using it; close it
+     * once they are no longer needed.
+     *
+     * @param client The client to use by default.
+     */
+    public static void setClient(CloudClient client) {
+        instance = client;
+    }
+
+    /**
+     * Builds CloudClients. Each client built has its own keys,
+     * endpoint, connection pool and timeouts, which cannot be changed
+     * once it has been built.
+     */
+    public static class Builder {
+        /**
+         * API domain used by clients that do not set their own.
+         */
+        public static final String BASE_URL = "api.weeblycloud.com/";
+
+        /**
+         * URI scheme used by clients that do not set their own.
+         */
+        public static final String SCHEME = "https";
+
+        private final String apiKey;
+        private final String apiSecret;
+        private String baseUrl = BASE_URL;
+        private String scheme = SCHEME;
+        private int connectTimeout = CONNECT_TIMEOUT;
+        private int socketTimeout = 0;
+        private int maxConnections = MAX_CONNECTIONS;
+        private int maxConnectionsPerRoute = MAX_CONNECTIONS_PER_ROUTE;
+        private int interceptorThreads = INTERCEPTOR_THREADS;
+        private ResponseCache cache;
+        private AdaptiveLimiter limiter;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerRegistry circuitBreakers;
+        private ClientMetrics metrics;
+        private boolean coalesceRequests = false;
+        private AdaptivePageSize adaptivePageSize;
+        private ArrayList<Interceptor> interceptors = new ArrayList<Interceptor>();
+
+        /**
+         * Creates a Builder for a client with the given API keys, and
+         * otherwise the default settings.
+         *
+         * @param apiKey
+         * @param apiSecret
+         */
+        public Builder(String apiKey, String apiSecret) {
+            this.apiKey = apiKey;
+            this.apiSecret = apiSecret;
+        }
+
+        /**
+         * Sets the API domain, BASE_URL by default.
+         */
+        public Builder setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /**
+         * Sets the URI scheme, SCHEME by default.
+         */
+        public Builder setScheme(String scheme) {
+            this.scheme = scheme;
+            return this;
+        }
+
+        /**
+         * Sets the timeout in milliseconds for connecting to the API and
+         * for waiting for a pooled connection, CONNECT_TIMEOUT by default.
+         */
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the timeout in milliseconds for waiting for data from the
+         * API, or 0 (the default) to wait indefinitely.
+         */
+        public Builder setSocketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the size of the connection pool, MAX_CONNECTIONS and
+         * MAX_CONNECTIONS_PER_ROUTE by default.
+         *
+         * @param maxConnections Maximum connections across all routes.
+         * @param maxConnectionsPerRoute Maximum connections to one route.
+         */
+        public Builder setMaxConnections(int maxConnections, int maxConnectionsPerRoute) {
+            this.maxConnections = maxConnections;
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads that run interceptors without an
+         * interceptAsync of their own for asynchronous requests,
+         * INTERCEPTOR_THREADS by default. Such an interceptor holds a
+         * thread until the response arrives, so at most this many
+         * asynchronous requests pass through it at once and the rest
+         * wait. On Java 21 and later each runs on a virtual thread
+         * instead, and this is unused.
+         */
+        public Builder setInterceptorThreads(int interceptorThreads) {
+            this.interceptorThreads = interceptorThreads;
+            return this;
+        }
+
+        /**
+         * Sets the cache used for GET requests.
+         */
+        public Builder setCache(ResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Sets the limiter for the rate and concurrency of requests.
+         */
+        public Builder setLimiter(AdaptiveLimiter limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+
+        /**
+         * Sets the policy for retrying failed requests.
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the circuit breakers for each endpoint.
+         */
+        public Builder setCircuitBreakers(CircuitBreakerRegistry circuitBreakers) {
+            this.circuitBreakers = circuitBreakers;
+            return this;
+        }
+
+        /**
+         * Sets the metrics every request is recorded to.
+         */
+        public Builder setMetrics(ClientMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets whether concurrent identical GET requests are coalesced.
+         * Off by default.
+         */
+        public Builder setCoalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        /**
+         * Sets how the lists this client returns grow their page size.
+         */
+        public Builder setAdaptivePageSize(AdaptivePageSize adaptivePageSize) {
+            this.adaptivePageSize = adaptivePageSize;
+            return this;
+        }
+
+        /**
+         * Adds an interceptor after the ones already added.
+         */
+        public Builder addInterceptor(Interceptor interceptor) {
+            this.interceptors.add(interceptor);
+            return this;
+        }
+
+        /**
+         * Creates a CloudClient with the settings of this Builder.
+         */
+        public CloudClient build() {
+            return new CloudClient(this);
+        }
+    }
+
+    /**
+     * Creates a new CloudClient object.
+     *
+     * @param builder The settings of the client.
+     */
+    private CloudClient(Builder builder) {
+        this.apiKey = builder.apiKey;
+        this.apiSecret = builder.apiSecret;
+        this.baseUrl = builder.baseUrl;
+        this.scheme = builder.scheme;
+        this.connectTimeout = builder.connectTimeout;
+        this.socketTimeout = builder.socketTimeout;
+        this.maxConnections = builder.maxConnections;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.interceptorThreads = Math.max(builder.interceptorThreads, 1);
+        this.cache = builder.cache;
+        this.limiter = builder.limiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreakers = builder.circuitBreakers;
+        this.metrics = builder.metrics;
+        this.coalesceRequests = builder.coalesceRequests;
+        this.adaptivePageSize = builder.adaptivePageSize;
+        this.interceptors = builder.interceptors.toArray(new Interceptor[0]);
+        this.signer = new RequestSigner(apiSecret);
+        this.connectionManager = buildConnectionManager();
+        this.httpClient = buildHttpClient(connectionManager);
+    }
+
+    /**
+     * Closes the pooled HTTP client and all of its connections. The
+     * CloudClient cannot make requests after it has been closed:
+     * requests throw, and asynchronous requests fail, with an
+     * IllegalStateException.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        //Close every client even if closing one of them fails
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            try {
+                if (asyncClient != null) {
+                    asyncClient.close();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                if (interceptorExecutor != null) {
+                    interceptorExecutor.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether close has been called.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private IllegalStateException closedException() {
+        return new IllegalStateException("CloudClient has been closed");
+    }
+
+    /**
+     * Makes a request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param method The HTTP method for the request.
+     * @param data The data to send in the request. Gets sent in the query
+     *              string if the method is GET or DELETE, or in the request
+     *              body if the method is POST, PUT, or PATCH.
+     */
+    public CloudResponse makeRequest(
+        String url,
+        String method,
+        HashMap<String,Object> data
+    ) throws CloudException {
+        return makeRequest(url, method, data, null);
+    }
+
+    /**
+     * Sets the cache used for GET requests. Writes made through this
+     * client invalidate the cached responses for the path written to.
+     *
+     * @param cache The cache to use, or null to disable caching.
+     */
+    public void setCache(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache used for GET requests, or null if there is none.
+     */
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Sets the limiter that controls the rate and concurrency of requests
+     * made through this client, both blocking and asynchronous.
+     *
+     * @param limiter The limiter to use, or null to send requests
+     *              without limits.
+     */
+    public void setLimiter(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Sets the policy for retrying failed requests. Only GET, PUT and
+     * DELETE requests, and POST requests made with an idempotency key,
+     * are retried.
+     *
+     * @param retryPolicy The policy to use, or null to never retry.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Sets the circuit breakers for the endpoints this client calls. While
+     * an endpoint's breaker is open, requests to it fail immediately with
+     * a CloudException with code CircuitBreaker.OPEN_CODE.
+     *
+     * @param circuitBreakers The breakers to use, or null to disable them.
+     */
+    public void setCircuitBreakers(CircuitBreakerRegistry circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    /**
+     * Sets the metrics that record every request made through this
+     * client, including each retry attempt.
+     *
+     * @param metrics The metrics to record to, or null to stop recording.
+     */
+    public void setMetrics(ClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics requests are recorded to, or null if there are none.
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets whether concurrent identical GET requests are coalesced. When
+     * enabled, a GET that is made while a GET with the same parameters and
+     * headers is in progress waits for it and returns a copy of its
+     * CloudResponse. A GET never waits for one that started before a
+     * write through this client to the same path. Off by default.
+     *
+     * @param coalesceRequests Whether to coalesce identical GET requests.
+     */
+    public void setCoalesceRequests(boolean coalesceRequests) {
+        this.coalesceRequests = coalesceRequests;
+    }
+
+    /**
+     * Sets how the CloudLists created from this client's responses grow
+     * their page size. Off (null) by default.
+     *
+     * @param adaptivePageSize Decides how the page size grows, or null
+     *              to keep the page size of the first page.
+     */
+    public void setAdaptivePageSize(AdaptivePageSize adaptivePageSize) {
+        this.adaptivePageSize = adaptivePageSize;
+    }
+
+    /**
+     * Gets how lists grow their page size, or null if they do not.
+     */
+    public AdaptivePageSize getAdaptivePageSize() {
+        return adaptivePageSize;
+    }
+
+    /**
+     * Adds an interceptor that wraps every request made through this
+     * client, after the interceptors already added.
+     *
+     * @param interceptor The interceptor to add.
+     */
+    public synchronized void addInterceptor(Interceptor interceptor) {
+        Interceptor[] copy = Arrays.copyOf(interceptors, interceptors.length + 1);
+        copy[interceptors.length] = interceptor;
+        interceptors = copy;
+    }
+
+    /**
+     * Removes an interceptor added with addInterceptor.
+     *
+     * @param interceptor The interceptor to remove.
+     */
+    public synchronized void removeInterceptor(Interceptor interceptor) {
+        ArrayList<Interceptor> copy = new ArrayList<Interceptor>(Arrays.asList(interceptors));
+        copy.remove(interceptor);
+        interceptors = copy.toArray(new Interceptor[copy.size()]);
+    }
+
+    /**
+     * Sends a request to the next interceptor, or to the client once
+     * every interceptor has proceeded.
+     */
+    private static class Pipeline implements Interceptor.Chain {
+        private final Interceptor[] interceptors;
+        private final int index;
+        private final CloudRequest request;
+        private final Dispatcher dispatcher;
+
+        Pipeline(Interceptor[] interceptors, int index, CloudRequest request,
+                Dispatcher dispatcher) {
+            this.interceptors = interceptors;
+            this.index = index;
+            this.request = request;
+            this.dispatcher = dispatcher;
+        }
+
+        public CloudRequest request() {
+            return request;
+        }
+
+        public CloudResponse proceed(CloudRequest request) throws CloudException {
+            if (index == interceptors.length) {
+                return dispatcher.dispatch(request);
+            }
+            return interceptors[index].intercept(
+                new Pipeline(interceptors, index + 1, request, dispatcher));
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of Pipeline.
+     */
+    private static class AsyncPipeline implements Interceptor.AsyncChain {
+        private final CloudClient client;
+        private final Interceptor[] interceptors;
+        private final int index;
+        private final CloudRequest request;
+        private final Function<CloudRequest, CompletableFuture<CloudResponse>> dispatcher;
+
+        AsyncPipeline(CloudClient client, Interceptor[] interceptors, int index,
+                CloudRequest request,
+                Function<CloudRequest, CompletableFuture<CloudResponse>> dispatcher) {
+            this.client = client;
+            this.interceptors = interceptors;
+            this.index = index;
+            this.request = request;
+            this.dispatcher = dispatcher;
+        }
+
+        public CloudRequest request() {
+            return request;
+        }
+
+        public CompletableFuture<CloudResponse> proceed(CloudRequest request) {
+            if (index == interceptors.length) {
+                return dispatcher.apply(request);
+            }
+            try {
+                return interceptors[index].interceptAsync(
+                    new AsyncPipeline(client, interceptors, index + 1, request, dispatcher));
+            } catch (RuntimeException e) {
+                CompletableFuture<CloudResponse> failed = new CompletableFuture<CloudResponse>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+    }
+
+    /**
+     * Whether the current thread is running a blocking interceptor.
+     */
+    private static final ThreadLocal<Boolean> INTERCEPTING = new ThreadLocal<Boolean>();
+
+    /**
+     * Returns the executor that runs blocking interceptors for this
+     * client's asynchronous requests.
+     */
+    private ExecutorService getInterceptorExecutor() {
+        ExecutorService executor = interceptorExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = interceptorExecutor;
+                if (executor == null) {
+                    if (closed) {
+                        throw closedException();
+                    }
+                    executor = Threads.newExecutor(interceptorThreads,
+                        "weebly-cloud-interceptor");
+                    interceptorExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Runs an interceptor's blocking intercept for an asynchronous
+     * request on one of the client's interceptor threads, so the caller
+     * is not blocked. Proceeding waits for the rest of the asynchronous
+     * pipeline, holding the thread until the response arrives.
+     *
+     * @param interceptor The interceptor to run.
+     * @param chain The rest of the pipeline.
+     */
+    static CompletableFuture<CloudResponse> interceptBlocking(Interceptor interceptor,
+            Interceptor.AsyncChain chain) {
+        Interceptor.Chain blocking = new Interceptor.Chain() {
+            public CloudRequest request() {
+                return chain.request();
+            }
+
+            public CloudResponse proceed(CloudRequest request) throws CloudException {
+                return await(chain.proceed(request));
+            }
+        };
+
+        CompletableFuture<CloudResponse> future = new CompletableFuture<CloudResponse>();
+        Bulk.Scope scope = Bulk.Scope.current();
+        Runnable task = () -> {
+            Boolean outer = INTERCEPTING.get();
+            INTERCEPTING.set(Boolean.TRUE);
+            Bulk.Scope outerScope = Bulk.Scope.enter(scope);
+            try {
+                future.complete(interceptor.intercept(blocking));
+            } catch (CloudException | RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                Bulk.Scope.enter(outerScope);
+                if (outer == null) {
+                    INTERCEPTING.remove();
+                }
+            }
+        };
+
+        //An interceptor proceeding to the next one is already off the
+        //caller's thread, and must not wait for another interceptor thread.
+        //Neither can a chain that was not made by a client.
+        if (INTERCEPTING.get() != null || !(chain instanceof AsyncPipeline)) {
+            task.run();
+        } else {
+            CloudClient client = ((AsyncPipeline) chain).client;
+            try {
+                client.getInterceptorExecutor().execute(task);
+            } catch (IllegalStateException e) {
+                future.completeExceptionally(e);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                future.completeExceptionally(client.closedException());
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Sends a request once it has passed through the interceptors.
+     */
+    private interface Dispatcher {
+        CloudResponse dispatch(CloudRequest request) throws CloudException;
+    }
+
+    /**
+     * Passes a request through the interceptors, skipping the pipeline
+     * entirely when there are none.
+     */
+    private CloudResponse intercept(CloudRequest request, Dispatcher dispatcher)
+            throws CloudException {
+        Interceptor[] interceptors = this.interceptors;
+        if (interceptors.length == 0) {
+            return dispatcher.dispatch(request);
+        }
+        return new Pipeline(interceptors, 0, request, dispatcher).proceed(request);
+    }
+
+    /**
+     * Makes a request to the Weebly Cloud API, passing each element of a
+     * JSON array response to handler as it is read from the connection.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param method The HTTP method for the request.
+     * @param data The data to send in the request. Gets sent in the query
+     *              string if the method is GET or DELETE, or in the request
+     *              body if the method is POST, PUT, or PATCH.
+     * @param handler Receives array elements as they are read, or null to
+     *              build the whole response body.
+     */
+    public CloudResponse makeRequest(
+        String url,
+        String method,
+        HashMap<String,Object> data,
+        CloudResponse.ElementHandler handler
+    ) throws CloudException {
+        return makeRequest(new CloudRequest(url, method, data), handler);
+    }
+
+    /**
+     * Makes a request after passing it through the interceptors.
+     *
+     * @param request The request to make.
+     * @param handler Receives array elements as they are read, or null.
+     */
+    public CloudResponse makeRequest(CloudRequest request,
+            CloudResponse.ElementHandler handler) throws CloudException {
+        return intercept(request, r -> handle(request, r, handler));
+    }
+
+    /**
+     * Makes a request that has passed through the interceptors.
+     *
+     * @param original The request before the interceptors, used to
+     *              revalidate stale cached responses.
+     * @param request The request to make.
+     * @param handler Receives array elements as they are read, or null.
+     */
+    private CloudResponse handle(CloudRequest original, CloudRequest request,
+            CloudResponse.ElementHandler handler) throws CloudException {
+        String url = request.getUrl();
+        String method = request.getMethod();
+        HashMap<String,Object> data = request.getData();
+        Map<String,String> headers = request.getHeaders();
+
+        ResponseCache cache = this.cache;
+        if (!method.equals("GET")) {
+            //Stop GETs made from now on from waiting for a GET
+            //that may read the path before the write
+            invalidations.invalidate(url);
+            try {
+                return send(url, method, data, handler, headers);
+            } finally {
+                if (cache != null) {
+                    invalidate(cache, url);
+                }
+            }
+        } else if (cache == null || handler != null) {
+            return send(url, method, data, handler, headers);
+        }
+
+        return getCached(cache, original, url, data, headers);
+    }
+
+    /**
+     * Removes the cached responses for a path after a write to it.
+     */
+    private void invalidate(ResponseCache cache, String url) {
+        invalidations.invalidate(url);
+        cache.invalidate(url);
+    }
+
+    /**
+     * Caches a response unless its path was invalidated after the
+     * request for it started. The cache keeps its own copy, so that
+     * callers can modify the responses they are given.
+     *
+     * @param started The point in the sequence of invalidations
+     *              the request started at.
+     */
+    private void fill(ResponseCache cache, String url, HashMap<String,Object> parameters,
+            Map<String,String> headers, CloudResponse res, long started) {
+        if (!invalidations.isInvalidated(url, started)) {
+            cache.put(url, parameters, headers, res.copy());
+        }
+    }
+
+    /**
+     * Serves a GET request from the cache, refreshing the cached response
+     * in the background if it is stale.
+     */
+    private CloudResponse getCached(ResponseCache cache, CloudRequest original, String url,
+            HashMap<String,Object> parameters, Map<String,String> headers)
+            throws CloudException {
+        ResponseCache.Entry entry = cache.get(url, parameters, headers);
+        if (entry != null) {
+            if (entry.stale) {
+                refresh(cache, original, url, parameters, headers);
+            }
+            return entry.response.copy();
+        }
+
+        long started = invalidations.current();
+        CloudResponse res = send(url, "GET", parameters, null, headers);
+        fill(cache, url, parameters, headers, res, started);
+        return res;
+    }
+
+    /**
+     * Refetches a cached response without blocking, unless it is
+     * already being refreshed. The original request passes through the
+     * interceptors again, so the refetch is made like the request that
+     * was cached, with the same headers.
+     *
+     * @param original The request before the interceptors.
+     */
+    private void refresh(ResponseCache cache, CloudRequest original, String url,
+            HashMap<String,Object> parameters, Map<String,String> headers) {
+        String key = ResponseCache.key(url, parameters, headers);
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        long started = invalidations.current();
+        Function<CloudRequest, CompletableFuture<CloudResponse>> revalidate = r ->
+            sendAsync(r.getUrl(), "GET", r.getData(), r.getHeaders()).thenApply(res -> {
+                fill(cache, r.getUrl(), r.getData(), r.getHeaders(), res, started);
+                return res;
+            });
+
+        Interceptor[] interceptors = this.interceptors;
+        CompletableFuture<CloudResponse> future = (interceptors.length == 0)
+            ? revalidate.apply(original)
+            : new AsyncPipeline(this, interceptors, 0, original, revalidate).proceed(original);
+        future.whenComplete((res, e) -> refreshing.remove(key));
+    }
+
+    private CloudResponse send(
+        String url,
+        String method,
+        HashMap<String,Object> data,
+        CloudResponse.ElementHandler handler,
+        Map<String,String> headers
+    ) throws CloudException {
+        if (!coalesceRequests || handler != null || !method.equals("GET")) {
+            HttpRequestBase request = buildHttpRequest(url, method, data, headers);
+            return execute(request, url, data, handler);
+        }
+
+        //Wait for an identical request that is already in progress
+        String key = coalescingKey(url, data, headers);
+        Shared own = new Shared(invalidations.current());
+        Shared shared = join(key, url, own);
+        if (shared != null) {
+            return await(shared.future).copy();
+        }
+
+        try {
+            CloudResponse res = execute(
+                buildHttpRequest(url, method, data, headers), url, data, null);
+            own.future.complete(res);
+            return res.copy();
+        } catch (CloudException | RuntimeException e) {
+            own.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Registers a GET as in progress, unless an identical GET that can be
+     * waited for is already in progress.
+     *
+     * @param key The url, parameters and headers of the request.
+     * @param url The endpoint url.
+     * @param own The request to register.
+     * @return The request to wait for, or null if own was registered.
+     */
+    private Shared join(String key, String url, Shared own) {
+        while (true) {
+            Shared shared = inFlight.putIfAbsent(key, own);
+            if (shared == null) {
+                return null;
+            } else if (!invalidations.isInvalidated(url, shared.started)) {
+                return shared;
+            } else if (inFlight.replace(key, shared, own)) {
+                //The request in progress started before a write to
+                //the path, so it may return what the write replaced
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Builds the key identical GET requests are coalesced by.
+     */
+    private static String coalescingKey(String url, HashMap<String,Object> data,
+            Map<String,String> headers) {
+        return ResponseCache.key(url, data, headers);
+    }
+
+    /**
+     * Makes a conditional GET request to the Weebly Cloud API. If the
+     * resource has not changed since the validators were issued, the
+     * server responds with 304 Not Modified and the returned
+     * CloudResponse has notModified set and no body.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param etag The ETag from a previous response, or null.
+     * @param lastModified The Last-Modified value from a previous
+     *              response, or null.
+     */
+    public CloudResponse getIfChanged(String url, String etag, String lastModified)
+            throws CloudException {
+        CloudRequest request = new CloudRequest(url, "GET", new HashMap<String, Object>());
+        if (etag != null) {
+            request = request.withHeader("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request = request.withHeader("If-Modified-Since", lastModified);
+        }
+
+        //Conditional requests bypass the cache and are not coalesced
+        return intercept(request, r -> execute(
+            buildHttpRequest(r.getUrl(), r.getMethod(), r.getData(), r.getHeaders()),
+            r.getUrl(), r.getData(), null));
+    }
+
+    /**
+     * Sends a request and reads its response, retrying it according
+     * to the retry policy if it is idempotent.
+     *
+     * @param request The request built by buildHttpRequest.
+     * @param url The endpoint url, not including domain or query string.
+     * @param data The data sent in the request.
+     * @param handler Receives array elements as they are read, or null.
+     */
+    private CloudResponse execute(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        CloudResponse.ElementHandler handler
+    ) throws CloudException {
+        //Elements already passed to a handler cannot be taken back,
+        //so streamed requests are not retried
+        RetryPolicy retryPolicy = this.retryPolicy;
+        if (retryPolicy == null || handler != null || !isIdempotent(request)) {
+            return attempt(request, url, data, handler);
+        }
+
+        RetryPolicy.Attempts attempts = retryPolicy.start();
+        while (true) {
+            try {
+                return attempt(request, url, data, handler);
+            } catch (CloudException | RuntimeException e) {
+                long delay = attempts.retryDelay(e);
+                if (delay < 0) {
+                    throw e;
+                }
+
+                //Wake at the bulk deadline at the latest, to fail there
+                Bulk.Scope scope = Bulk.Scope.current();
+                if (scope != null) {
+                    delay = Math.min(delay, scope.remainingMillis());
+                }
+
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                request.reset();
+            }
+        }
+    }
 
     /**
-     * Admin API key
+     * Whether a request can safely be sent more than once.
+     *
+     * @param request The request built by buildHttpRequest.
      */
-    public String apiKey;
+    private static boolean isIdempotent(HttpRequestBase request) {
+        return IDEMPOTENT_METHODS.contains(request.getMethod())
+            || request.containsHeader(IDEMPOTENCY_KEY_HEADER);
+    }
 
     /**
-     * API secret key
+     * Sends a request once and reads its response, unless the circuit
+     * breaker for its endpoint is open.
      */
-    public String apiSecret;
+    private CloudResponse attempt(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        CloudResponse.ElementHandler handler
+    ) throws CloudException {
+        ClientMetrics metrics = this.metrics;
+        long start = System.nanoTime();
+        CircuitBreaker breaker = null;
+        try {
+            breaker = allowRequest(url);
+            CloudResponse res = sendOnce(request, url, data, handler);
+            if (breaker != null) {
+                breaker.onSuccess();
+            }
+            if (metrics != null) {
+                metrics.record(request.getMethod(), url, System.nanoTime() - start,
+                    bytesSent(request), res.contentLength, null);
+            }
+            return res;
+        } catch (CloudException | RuntimeException e) {
+            if (breaker != null) {
+                breaker.record(e);
+            }
+            if (metrics != null) {
+                metrics.record(request.getMethod(), url, System.nanoTime() - start,
+                    bytesSent(request), 0, e);
+            }
+            throw e;
+        }
+    }
 
     /**
-     * Instance of CloudClient
+     * Returns the size of a request's body.
      */
-    private static CloudClient instance;
+    private static long bytesSent(HttpRequestBase request) {
+        if (request instanceof HttpEntityEnclosingRequestBase) {
+            HttpEntity entity = ((HttpEntityEnclosingRequestBase) request).getEntity();
+            return (entity != null) ? Math.max(entity.getContentLength(), 0) : 0;
+        }
+        return 0;
+    }
 
     /**
-     * Gets the instance of the CloudClient
+     * Returns the circuit breaker for an endpoint, or null if there are
+     * no circuit breakers.
+     *
+     * @throws CloudException If the breaker is open.
      */
-    public static CloudClient getClient() {
-        if(instance==null) {
+    private CircuitBreaker allowRequest(String url) throws CloudException {
+        CircuitBreakerRegistry breakers = this.circuitBreakers;
+        if (breakers == null) {
             return null;
         }
 
-        return instance;
+        CircuitBreaker breaker = breakers.get(url);
+        if (!breaker.allowRequest()) {
+            throw new CloudException("Circuit open for " + Endpoints.template(url),
+                CircuitBreaker.OPEN_CODE);
+        }
+        return breaker;
+    }
+
+    private CloudResponse sendOnce(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        CloudResponse.ElementHandler handler
+    ) throws CloudException {
+        if (closed) {
+            throw closedException();
+        }
+
+        AdaptiveLimiter limiter = this.limiter;
+        if (limiter != null) {
+            limiter.acquire();
+        }
+
+        Bulk.Scope scope = Bulk.Scope.current();
+        try {
+            if (scope != null) {
+                scope.register(request);
+                request.setConfig(deadlineConfig(scope.remainingMillis()));
+            }
+
+            CloseableHttpResponse response = null;
+            long start = System.nanoTime();
+            try {
+                response = httpClient.execute(request);
+            } catch (java.net.SocketTimeoutException e) {
+                if (scope != null && scope.isExpired()) {
+                    throw new CloudException("Deadline exceeded", Bulk.DEADLINE_CODE);
+                }
+                throw new CloudException("Response timed out", 999);
+            } catch (IOException e) {
+                //Includes waiting for a pooled connection until the deadline
+                if (request.isAborted() || (scope != null && scope.isExpired())) {
+                    throw new CloudException("Deadline exceeded", Bulk.DEADLINE_CODE);
+                }
+                throw new RuntimeException(e);
+            }
+
+            if (limiter != null) {
+                limiter.onResponse(request.getMethod() + " " + Endpoints.template(url),
+                    response.getStatusLine().getStatusCode(),
+                    retryAfter(response), System.nanoTime() - start);
+            }
+
+            //Return the connection to the pool once the body has been read
+            try {
+                CloudResponse res = new CloudResponse(response, url, data, handler);
+                res.client = this;
+                return res;
+            } finally {
+                try {
+                    response.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            if (scope != null) {
+                scope.unregister(request);
+            }
+            if (limiter != null) {
+                limiter.release();
+            }
+        }
     }
 
     /**
-     * Sets the instance of CloudClient using the API keys. Must
-     * be called before making a request.
+     * Returns the request config for a request made by a bulk call, with
+     * every timeout capped to the time left until the bulk deadline.
      *
-     * @param apiKey
-     * @param apiSecret
+     * @param remaining Milliseconds until the deadline.
      */
-    public static void setKeys(String apiKey, String apiSecret) {
-        instance = new CloudClient(apiKey, apiSecret);
+    private RequestConfig deadlineConfig(int remaining) {
+        //A timeout of 0 waits forever, so it is replaced by remaining
+        int connect = (connectTimeout > 0) ? Math.min(connectTimeout, remaining) : remaining;
+        int socket = (socketTimeout > 0) ? Math.min(socketTimeout, remaining) : remaining;
+        return RequestConfig
+            .custom()
+            .setConnectTimeout(connect)
+            .setConnectionRequestTimeout(connect)
+            .setSocketTimeout(socket)
+            .build();
     }
 
     /**
-     * Creates a new CloudClient object.
+     * Returns the delay requested by a response's Retry-After header
+     * in milliseconds, or -1 if it has none.
      *
-     * @param apiKey
-     * @param apiSecret
+     * @param response The HTTP response.
      */
-    private CloudClient(String apiKey, String apiSecret) {
-        this.apiKey = apiKey;
-        this.apiSecret = apiSecret;
+    static long retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null) {
+            return -1;
+        }
+
+        String value = header.getValue().trim();
+        try {
+            return Math.max(Long.parseLong(value) * 1000, 0);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return (date != null)
+                ? Math.max(date.getTime() - System.currentTimeMillis(), 0)
+                : -1;
+        }
     }
 
     /**
-     * Makes a request to the Weebly Cloud API.
+     * Makes a request to the Weebly Cloud API without blocking the calling
+     * thread. The returned future completes with the CloudResponse, or
+     * exceptionally with a CloudException if the API returned an error.
      *
      * @param url The endpoint url, not including domain or query string.
      * @param method The HTTP method for the request.
@@ -87,36 +1330,357 @@ public class CloudClient {
      *              string if the method is GET or DELETE, or in the request
      *              body if the method is POST, PUT, or PATCH.
      */
-    public CloudResponse makeRequest(
+    public CompletableFuture<CloudResponse> makeRequestAsync(
         String url,
         String method,
         HashMap<String,Object> data
-    ) throws CloudException {
-        //Set the timeout for requests to 3 seconds
-        CloseableHttpClient httpClient = buildHttpClientWithTimeout(3 * 1000);
+    ) {
+        return makeRequestAsync(new CloudRequest(url, method, data));
+    }
+
+    /**
+     * Makes an asynchronous request after passing it through the
+     * interceptors.
+     *
+     * @param request The request to make.
+     */
+    public CompletableFuture<CloudResponse> makeRequestAsync(CloudRequest request) {
+        Interceptor[] interceptors = this.interceptors;
+        if (interceptors.length == 0) {
+            return handleAsync(request, request);
+        }
+        return new AsyncPipeline(this, interceptors, 0, request, r -> handleAsync(request, r))
+            .proceed(request);
+    }
+
+    /**
+     * Makes an asynchronous request that has passed through the
+     * interceptors.
+     *
+     * @param original The request before the interceptors.
+     * @param request The request to make.
+     */
+    private CompletableFuture<CloudResponse> handleAsync(CloudRequest original,
+            CloudRequest request) {
+        String url = request.getUrl();
+        String method = request.getMethod();
+        HashMap<String,Object> data = request.getData();
+        Map<String,String> headers = request.getHeaders();
+
+        ResponseCache cache = this.cache;
+        if (!method.equals("GET")) {
+            invalidations.invalidate(url);
+            CompletableFuture<CloudResponse> future = sendAsync(url, method, data, headers);
+            return (cache != null)
+                ? future.whenComplete((res, e) -> invalidate(cache, url))
+                : future;
+        } else if (cache == null) {
+            return sendAsync(url, method, data, headers);
+        }
+
+        ResponseCache.Entry entry = cache.get(url, data, headers);
+        if (entry != null) {
+            if (entry.stale) {
+                refresh(cache, original, url, data, headers);
+            }
+            return CompletableFuture.completedFuture(entry.response.copy());
+        }
+
+        long started = invalidations.current();
+        return sendAsync(url, method, data, headers).thenApply(res -> {
+            fill(cache, url, data, headers, res, started);
+            return res;
+        });
+    }
 
-        HttpRequestBase request = buildHttpRequest(url, method, data);
+    private CompletableFuture<CloudResponse> sendAsync(
+        String url,
+        String method,
+        HashMap<String,Object> data,
+        Map<String,String> headers
+    ) {
+        if (!coalesceRequests || !method.equals("GET")) {
+            HttpRequestBase request = buildHttpRequest(url, method, data, headers);
+            return executeAsync(request, url, data);
+        }
+
+        //Share an identical request that is already in progress
+        String key = coalescingKey(url, data, headers);
+        Shared own = new Shared(invalidations.current());
+        Shared shared = join(key, url, own);
+        if (shared != null) {
+            return copy(shared.future);
+        }
+
+        executeAsync(buildHttpRequest(url, method, data, headers), url, data)
+                .whenComplete((res, e) -> {
+            inFlight.remove(key, own);
+            if (e != null) {
+                own.future.completeExceptionally(e);
+            } else {
+                own.future.complete(res);
+            }
+        });
+
+        return copy(own.future);
+    }
+
+    /**
+     * Returns a future that completes with a copy of the result of a
+     * shared future, so that one caller cancelling it or modifying the
+     * response does not affect the others.
+     */
+    private static CompletableFuture<CloudResponse> copy(
+            CompletableFuture<CloudResponse> shared) {
+        CompletableFuture<CloudResponse> copy = new CompletableFuture<CloudResponse>();
+        shared.whenComplete((res, e) -> {
+            if (e != null) {
+                copy.completeExceptionally(
+                    (e instanceof CompletionException) ? e.getCause() : e);
+            } else {
+                copy.complete(res.copy());
+            }
+        });
+        return copy;
+    }
 
-        CloseableHttpResponse response = null;
+    /**
+     * Waits for a response, unwrapping the CloudException it failed with.
+     *
+     * @param future The pending response.
+     */
+    static CloudResponse await(CompletableFuture<CloudResponse> future)
+            throws CloudException {
         try {
-            response = httpClient.execute(request);
-        } catch (java.net.SocketTimeoutException e) {
-            throw new CloudException("Response timed out", 999);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Sends a request with the asynchronous client, retrying it according
+     * to the retry policy if it is idempotent. A request made by a bulk
+     * call keeps to its deadline like a blocking one.
+     *
+     * @param request The request built by buildHttpRequest.
+     * @param url The endpoint url, not including domain or query string.
+     * @param data The data sent in the request.
+     */
+    private CompletableFuture<CloudResponse> executeAsync(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data
+    ) {
+        Bulk.Scope scope = Bulk.Scope.current();
+        RetryPolicy retryPolicy = this.retryPolicy;
+        if (retryPolicy == null || !isIdempotent(request)) {
+            return attemptAsync(request, url, data, scope);
         }
 
-        CloudResponse cloudResponse = new CloudResponse(response, url, data);
+        CompletableFuture<CloudResponse> future = new CompletableFuture<CloudResponse>();
+        retryAsync(request, url, data, scope, retryPolicy.start(), future);
+        return future;
+    }
+
+    private void retryAsync(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        Bulk.Scope scope,
+        RetryPolicy.Attempts attempts,
+        CompletableFuture<CloudResponse> future
+    ) {
+        attemptAsync(request, url, data, scope).whenComplete((res, e) -> {
+            if (e == null) {
+                future.complete(res);
+                return;
+            }
+
+            Exception failure = (e instanceof Exception) ? (Exception) e : new RuntimeException(e);
+            long delay = attempts.retryDelay(failure);
+            if (delay < 0 || future.isDone()) {
+                future.completeExceptionally(e);
+            } else {
+                if (scope != null) {
+                    delay = Math.min(delay, scope.remainingMillis());
+                }
+                RetryPolicy.schedule(() -> {
+                    request.reset();
+                    retryAsync(request, url, data, scope, attempts, future);
+                }, delay);
+            }
+        });
+    }
+
+    /**
+     * Sends a request once with the asynchronous client.
+     *
+     * @param scope The scope of the bulk call making the request, or null.
+     */
+    private CompletableFuture<CloudResponse> attemptAsync(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        Bulk.Scope scope
+    ) {
+        CompletableFuture<CloudResponse> future = new CompletableFuture<CloudResponse>();
 
-        request.releaseConnection();
+        ClientMetrics metrics = this.metrics;
+        if (metrics != null) {
+            long start = System.nanoTime();
+            future.whenComplete((res, e) -> metrics.record(request.getMethod(), url,
+                System.nanoTime() - start, bytesSent(request),
+                (res != null) ? res.contentLength : 0, e));
+        }
 
+        CircuitBreaker breaker;
         try {
-            httpClient.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            breaker = allowRequest(url);
+        } catch (CloudException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (breaker != null) {
+            future.whenComplete((res, e) -> breaker.record(e));
+        }
+
+        AdaptiveLimiter limiter = this.limiter;
+
+        if (limiter == null) {
+            dispatch(request, url, data, scope, future, null);
+        } else {
+            limiter.acquireAsync().whenComplete((permit, e) -> {
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    dispatch(request, url, data, scope, future, limiter);
+                }
+            });
+        }
+
+        return future;
+    }
+
+    /**
+     * Calls dispatchAsync, completing future with anything it throws so
+     * that the future never stays incomplete.
+     */
+    private void dispatch(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        Bulk.Scope scope,
+        CompletableFuture<CloudResponse> future,
+        AdaptiveLimiter limiter
+    ) {
+        try {
+            dispatchAsync(request, url, data, scope, future, limiter);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
         }
+    }
+
+    /**
+     * Sends a request with the asynchronous client, completing future
+     * with its response.
+     *
+     * @param scope The scope of the bulk call making the request, or null.
+     * @param limiter The limiter the request holds a permit from, or null.
+     */
+    private void dispatchAsync(
+        HttpRequestBase request,
+        String url,
+        HashMap<String,Object> data,
+        Bulk.Scope scope,
+        CompletableFuture<CloudResponse> future,
+        AdaptiveLimiter limiter
+    ) {
+        long start = System.nanoTime();
+
+        FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+            public void completed(HttpResponse response) {
+                if (scope != null) {
+                    scope.unregister(request);
+                }
+                if (limiter != null) {
+                    limiter.onResponse(request.getMethod() + " " + Endpoints.template(url),
+                        response.getStatusLine().getStatusCode(),
+                        retryAfter(response), System.nanoTime() - start);
+                    limiter.release();
+                }
+
+                callbackExecutor().execute(() -> {
+                    try {
+                        CloudResponse res = new CloudResponse(response, url, data);
+                        res.client = CloudClient.this;
+                        future.complete(res);
+                    } catch (CloudException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+
+            public void failed(Exception e) {
+                if (scope != null) {
+                    scope.unregister(request);
+                }
+                if (limiter != null) {
+                    limiter.release();
+                }
+
+                callbackExecutor().execute(() -> {
+                    if (scope != null && (request.isAborted() || scope.isExpired())) {
+                        future.completeExceptionally(
+                            new CloudException("Deadline exceeded", Bulk.DEADLINE_CODE));
+                    } else if (e instanceof java.net.SocketTimeoutException) {
+                        future.completeExceptionally(
+                            new CloudException("Response timed out", 999));
+                    } else {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+
+            public void cancelled() {
+                if (scope != null) {
+                    scope.unregister(request);
+                }
+                if (limiter != null) {
+                    limiter.release();
+                }
 
-        return cloudResponse;
+                //Aborted by the bulk call
+                if (scope != null && request.isAborted()) {
+                    future.completeExceptionally(
+                        new CloudException("Deadline exceeded", Bulk.DEADLINE_CODE));
+                } else {
+                    future.cancel(false);
+                }
+            }
+        };
+
+        try {
+            if (closed) {
+                throw closedException();
+            }
+            if (scope != null) {
+                scope.register(request);
+                request.setConfig(deadlineConfig(scope.remainingMillis()));
+            }
+            getAsyncClient().execute(request, callback);
+        } catch (CloudException e) {
+            callback.failed(e);
+        } catch (RuntimeException e) {
+            //The client has been closed
+            callback.failed(closed ? closedException() : e);
+        }
     }
 
     /**
@@ -125,22 +1689,21 @@ public class CloudClient {
      * @param url The endpoint url, not including domain or query string.
      * @param method
      * @param data
+     * @param headers Extra headers to send.
      */
-    private HttpRequestBase buildHttpRequest(String url, String method,
-            HashMap<String,Object> data) {
+    HttpRequestBase buildHttpRequest(String url, String method,
+            HashMap<String,Object> data, Map<String,String> headers) {
         URIBuilder uriBuilder = (new URIBuilder())
-            .setScheme("https")
-            .setHost(BASE_URL)
+            .setScheme(scheme)
+            .setHost(baseUrl)
             .setPath(url);
 
         //Send the data through either the request body
         //or the query parameters
-        boolean dataInBody = Arrays
-            .asList(new String[]{"POST","PUT","PATCH"})
-            .contains(method);
-        String content = "";
+        boolean dataInBody = BODY_METHODS.contains(method);
+        byte[] content = EMPTY_BODY;
         if (dataInBody) {
-            content = (new GsonBuilder()).create().toJson(data);
+            content = GSON.toJson(data).getBytes(StandardCharsets.UTF_8);
         } else {
             for (Map.Entry<String, Object> entry : data.entrySet()) {
                 uriBuilder.setParameter(entry.getKey(), entry.getValue().toString());
@@ -169,29 +1732,137 @@ public class CloudClient {
         }
         
         if(dataInBody) {
-                ((HttpEntityEnclosingRequestBase) request).setEntity(new StringEntity(content,"utf-8"));
+            //The same bytes are signed and sent
+            ((HttpEntityEnclosingRequestBase) request).setEntity(new ByteArrayEntity(content));
         }
 
         request.addHeader("X-Public-Key", apiKey);
         request.addHeader(
             "X-Signed-Request-Hash",
-            makeHash(method + "\n" + url + "\n" + content)
+            signer.sign(method, url, content)
         );
         request.addHeader("Content-type", "application/json");
         request.addHeader("X-Client-Type", "java");
         request.addHeader("X-Client-Version", "1.0.0");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getValue() != null) {
+                request.setHeader(header.getKey(), header.getValue());
+            }
+        }
 
         return request;
     }
 
-    private CloseableHttpClient buildHttpClientWithTimeout (int timeout) {
+    /**
+     * Threads that read asynchronous responses and complete their
+     * futures, so callbacks never run on the HTTP client's I/O threads.
+     * Created the first time an asynchronous request completes. There
+     * are at most CALLBACK_THREADS of them, and they stop after a minute
+     * without work; completions beyond that wait in a queue.
+     */
+    private static class Callbacks {
+        static final ExecutorService EXECUTOR = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                CALLBACK_THREADS, CALLBACK_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread thread = new Thread(r, "weebly-cloud-callback");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Returns the shared pool of daemon threads that complete
+     * asynchronous requests.
+     */
+    static ExecutorService callbackExecutor() {
+        return Callbacks.EXECUTOR;
+    }
+
+    /**
+     * Gets the asynchronous client, starting it if this is the
+     * first asynchronous request.
+     */
+    private CloseableHttpAsyncClient getAsyncClient() {
+        CloseableHttpAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncClient;
+                if (client == null) {
+                    if (closed) {
+                        throw closedException();
+                    }
+                    client = buildHttpAsyncClient();
+                    client.start();
+                    asyncClient = client;
+                }
+            }
+        }
+
+        return client;
+    }
+
+    private CloseableHttpAsyncClient buildHttpAsyncClient() {
+        RequestConfig requestConfig = RequestConfig
+            .custom()
+            .setConnectTimeout(connectTimeout)
+            .setConnectionRequestTimeout(connectTimeout)
+            .setSocketTimeout(socketTimeout)
+            .build();
+
+        IOReactorConfig reactorConfig = IOReactorConfig
+            .custom()
+            .setIoThreadCount(IO_THREADS)
+            .setConnectTimeout(connectTimeout)
+            .setSoTimeout(socketTimeout)
+            .build();
+
+        return HttpAsyncClients.custom()
+            .setDefaultIOReactorConfig(reactorConfig)
+            .setDefaultRequestConfig(requestConfig)
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .build();
+    }
+
+    private PoolingHttpClientConnectionManager buildConnectionManager() {
+        PoolingHttpClientConnectionManager manager =
+            new PoolingHttpClientConnectionManager(KEEP_ALIVE, TimeUnit.MILLISECONDS);
+        manager.setMaxTotal(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        //Check connections that have been idle for a while before reusing them
+        manager.setValidateAfterInactivity(2 * 1000);
+
+        return manager;
+    }
+
+    private CloseableHttpClient buildHttpClient(PoolingHttpClientConnectionManager manager) {
         RequestConfig requestConfig = RequestConfig
             .custom()
-            .setConnectTimeout(timeout)
+            .setConnectTimeout(connectTimeout)
+            .setConnectionRequestTimeout(connectTimeout)
+            .setSocketTimeout(socketTimeout)
             .build();
 
+        //Honor the server's Keep-Alive header, falling back to KEEP_ALIVE
+        ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE
+                .getKeepAliveDuration(response, context);
+            return (duration > 0) ? duration : KEEP_ALIVE;
+        };
+
         return HttpClientBuilder.create()
+            .setConnectionManager(manager)
+            .setKeepAliveStrategy(keepAlive)
             .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.MILLISECONDS)
             .build();
     }
 
@@ -215,6 +1886,19 @@ public class CloudClient {
         return makeRequest(url, "GET", parameters);
     }
 
+    /**
+     * Makes a GET request to the Weebly Cloud API, passing each element of
+     * a JSON array response to handler as it is read.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters
+     * @param handler Receives array elements as they are read.
+     */
+    public CloudResponse get(String url, HashMap<String, Object> parameters,
+            CloudResponse.ElementHandler handler) throws CloudException {
+        return makeRequest(url, "GET", parameters, handler);
+    }
+
     /**
      * Makes a DELETE request to the Weebly Cloud API.
      *
@@ -244,6 +1928,21 @@ public class CloudClient {
         return makeRequest(url, "POST", data);
     }
 
+    /**
+     * Makes a POST request to the Weebly Cloud API with an idempotency
+     * key. The key tells the API that repeated requests with the same key
+     * are the same operation, which lets the request be retried safely.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param data
+     * @param idempotencyKey A key unique to this operation.
+     */
+    public CloudResponse post(String url, HashMap<String, Object> data,
+            String idempotencyKey) throws CloudException {
+        return makeRequest(new CloudRequest(url, "POST", data)
+            .withHeader(IDEMPOTENCY_KEY_HEADER, idempotencyKey), null);
+    }
+
     /**
      * Makes a PATCH request to the Weebly Cloud API.
      *
@@ -267,29 +1966,87 @@ public class CloudClient {
     }
 
     /**
-     * Returns a hash of the private key and the message to
-     * authenticate.
+     * Makes an asynchronous GET request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     */
+    public CompletableFuture<CloudResponse> getAsync(String url) {
+        return getAsync(url, new HashMap<String, Object>());
+    }
+
+    /**
+     * Makes an asynchronous GET request to the Weebly Cloud API.
      *
-     * @param message The message to hash with the secret key.
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters
      */
-    private String makeHash(String message) {
-        String hashString = "";
+    public CompletableFuture<CloudResponse> getAsync(String url,
+            HashMap<String, Object> parameters) {
+        return makeRequestAsync(url, "GET", parameters);
+    }
 
-        try {
-            Mac sha256_HMAC = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKey = new SecretKeySpec(apiSecret.getBytes("utf-8"), "HmacSHA256");
-            sha256_HMAC.init(secretKey);
-            byte[] hash = sha256_HMAC.doFinal(message.getBytes("utf-8"));
-
-            String hexString = String.format("%064x", new BigInteger(1,hash));
-            hashString = Base64.getEncoder().encodeToString(hexString.getBytes("utf-8"));
-        } catch (java.security.GeneralSecurityException e){
-            throw new RuntimeException(e);
-        } catch (java.io.UnsupportedEncodingException e){
-            throw new RuntimeException(e);
-        }
+    /**
+     * Makes an asynchronous DELETE request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     */
+    public CompletableFuture<CloudResponse> deleteAsync(String url) {
+        return makeRequestAsync(url, "DELETE", new HashMap<String, Object>());
+    }
+
+    /**
+     * Makes an asynchronous POST request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     */
+    public CompletableFuture<CloudResponse> postAsync(String url) {
+        return postAsync(url, new HashMap<String, Object>());
+    }
+
+    /**
+     * Makes an asynchronous POST request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param data
+     */
+    public CompletableFuture<CloudResponse> postAsync(String url,
+            HashMap<String, Object> data) {
+        return makeRequestAsync(url, "POST", data);
+    }
+
+    /**
+     * Makes an asynchronous POST request to the Weebly Cloud API with an
+     * idempotency key, which lets the request be retried safely.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param data
+     * @param idempotencyKey A key unique to this operation.
+     */
+    public CompletableFuture<CloudResponse> postAsync(String url,
+            HashMap<String, Object> data, String idempotencyKey) {
+        return makeRequestAsync(new CloudRequest(url, "POST", data)
+            .withHeader(IDEMPOTENCY_KEY_HEADER, idempotencyKey));
+    }
 
-        return hashString;
+    /**
+     * Makes an asynchronous PATCH request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param data
+     */
+    public CompletableFuture<CloudResponse> patchAsync(String url,
+            HashMap<String, Object> data) {
+        return makeRequestAsync(url, "PATCH", data);
     }
 
+    /**
+     * Makes an asynchronous PUT request to the Weebly Cloud API.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param data
+     */
+    public CompletableFuture<CloudResponse> putAsync(String url,
+            HashMap<String, Object> data) {
+        return makeRequestAsync(url, "PUT", data);
+    }
 }
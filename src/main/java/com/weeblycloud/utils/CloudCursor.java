@@ -0,0 +1,208 @@
+package com.weeblycloud.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Position in a paginated listing: the listing's url and parameters and
+ * the last page whose items have all been iterated. Cursors can be saved
+ * to disk as checkpoints, so that iteration can resume where it stopped
+ * after a failure or a restart. A saved cursor is a small JSON document,
+ * e.g. {"url":"user/1/site/2/page","parameters":{"limit":10},
+ * "limit":10,"page":3,"finished":false}.
+ */
+public class CloudCursor {
+    private static final Gson GSON = new Gson();
+
+    private final String url;
+    private final HashMap<String, Object> parameters;
+    private final int limit;
+    private final int page;
+    private final boolean finished;
+
+    /**
+     * Creates a CloudCursor.
+     *
+     * @param url The url of the listing endpoint.
+     * @param parameters The query parameters of the listing.
+     * @param limit The number of items per page, or 0 if the listing
+     *              is not paginated.
+     * @param page The last page whose items have all been iterated,
+     *              or 0 if none have.
+     * @param finished Whether or not every item has been iterated.
+     */
+    public CloudCursor(String url, HashMap<String, Object> parameters, int limit,
+            int page, boolean finished) {
+        this.url = url;
+        this.parameters = new HashMap<String, Object>(parameters);
+        this.parameters.remove("page");
+        this.limit = limit;
+        this.page = page;
+        this.finished = finished;
+    }
+
+    /**
+     * The url of the listing endpoint.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The query parameters of the listing, not including the page.
+     */
+    public HashMap<String, Object> getParameters() {
+        return new HashMap<String, Object>(parameters);
+    }
+
+    /**
+     * The number of items per page when the cursor was created.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * The last page whose items have all been iterated.
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * The number of items iterated.
+     */
+    public int getOffset() {
+        return page * limit;
+    }
+
+    /**
+     * Whether or not every item has been iterated.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Whether or not this is a position in the listing a response
+     * belongs to. The page and limit are not compared.
+     *
+     * @param res A page of the listing.
+     */
+    public boolean matches(CloudResponse res) {
+        HashMap<String, Object> other = new HashMap<String, Object>(res.parameters);
+        HashMap<String, Object> own = new HashMap<String, Object>(parameters);
+        other.remove("page");
+        other.remove("limit");
+        own.remove("limit");
+        return url.equals(res.url) && own.equals(other);
+    }
+
+    /**
+     * Writes the cursor to a file. The file is replaced atomically, so
+     * it holds either the previous or the new cursor if writing fails.
+     *
+     * @param file The file to write.
+     */
+    public void save(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        try {
+            File temp = File.createTempFile(file.getName(), ".tmp", parent);
+            try {
+                try (Writer out = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+                    GSON.toJson(toJson(), out);
+                }
+                Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads a cursor written by save().
+     *
+     * @param file The file to read.
+     * @return The cursor, or null if the file does not exist.
+     */
+    public static CloudCursor load(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return fromJson(new JsonParser().parse(in));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            //Malformed JSON, or JSON that is not a cursor
+            throw new RuntimeException("Not a saved cursor: " + file, e);
+        }
+    }
+
+    private JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("url", url);
+        json.add("parameters", GSON.toJsonTree(parameters));
+        json.addProperty("limit", limit);
+        json.addProperty("page", page);
+        json.addProperty("finished", finished);
+        return json;
+    }
+
+    private static CloudCursor fromJson(JsonElement element) {
+        JsonObject json = element.getAsJsonObject();
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        for (Map.Entry<String, JsonElement> entry
+                : json.getAsJsonObject("parameters").entrySet()) {
+            parameters.put(entry.getKey(), parameter(entry.getValue()));
+        }
+        return new CloudCursor(json.get("url").getAsString(), parameters,
+            json.get("limit").getAsInt(), json.get("page").getAsInt(),
+            json.get("finished").getAsBoolean());
+    }
+
+    /**
+     * Converts a saved parameter back to the type it is sent as, so that
+     * e.g. a limit of 10 is sent as "10" rather than "10.0".
+     */
+    private static Object parameter(JsonElement value) {
+        if (!value.isJsonPrimitive()) {
+            return GSON.fromJson(value, Object.class);
+        }
+
+        JsonPrimitive primitive = value.getAsJsonPrimitive();
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean();
+        } else if (primitive.isString()) {
+            return primitive.getAsString();
+        }
+
+        String number = primitive.getAsString();
+        if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+            return primitive.getAsDouble();
+        }
+        long integer = primitive.getAsLong();
+        return (integer == (int) integer) ? (Object) (int) integer : (Object) integer;
+    }
+
+    public String toString() {
+        return url + " " + parameters + " page " + page + (finished ? " (finished)" : "");
+    }
+}
@@ -8,6 +8,10 @@ import com.google.gson.*;
 public class CloudException extends Exception{
     private int code;
 
+    private int statusCode;
+
+    private long retryAfter = -1;
+
     /**
     * @param message The exception's error message.
     * @param code The error code.
@@ -31,4 +35,36 @@ public class CloudException extends Exception{
     public int getCode() {
         return this.code;
     }
+
+    /**
+    * Get the HTTP status code of the response, or 0 if the
+    * error did not come from a response.
+    */
+    public int getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+    * @param statusCode The HTTP status code of the response.
+    */
+    CloudException setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        return this;
+    }
+
+    /**
+    * Get the milliseconds the response asked to wait before retrying,
+    * from its Retry-After header, or -1 if it did not ask.
+    */
+    public long getRetryAfter() {
+        return this.retryAfter;
+    }
+
+    /**
+    * @param retryAfter Milliseconds from the Retry-After header, or -1.
+    */
+    CloudException setRetryAfter(long retryAfter) {
+        this.retryAfter = retryAfter;
+        return this;
+    }
 }
\ No newline at end of file
@@ -1,8 +1,18 @@
 package com.weeblycloud.utils;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.function.Function;
 import com.google.gson.*;
 
@@ -20,6 +30,16 @@ public class CloudList<T extends CloudResource> implements Iterable<T> {
         C apply (A a, B b) throws CloudException;
     }
 
+    /**
+     * The default number of concurrent requests used by loadAll().
+     */
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    /**
+     * The default number of pages kept by get() and subList().
+     */
+    public static final int DEFAULT_PAGE_CACHE_SIZE = 8;
+
     /**
      * A CloudResponse for getting the next page if needed. Replaced
      * each time nextPage() is called.
@@ -65,6 +85,43 @@ public class CloudList<T extends CloudResource> implements Iterable<T> {
     */
     private ConvertFunction<String[], JsonElement, ArrayList<T>> arrayFromJson;
 
+    /**
+     * Loads the pages after res.
+     */
+    private PageLoader loader;
+
+    /**
+     * The number of pages to load ahead, set by setPrefetch.
+     */
+    private int prefetch;
+
+    /**
+     * The response the list was created from.
+     */
+    private CloudResponse first;
+
+    /**
+     * The number of items in the first page.
+     */
+    private int firstPageSize;
+
+    /**
+     * The page size set by setPageSize, or 0 to keep the page size
+     * of the first page.
+     */
+    private int pageSize;
+
+    /**
+     * Grows the page size of the pages loaded after the first, or null.
+     */
+    private AdaptivePageSize adaptivePageSize;
+
+    /**
+     * Pages past the end of list that were loaded by get() or subList(),
+     * least recently used first.
+     */
+    private LinkedHashMap<Integer, List<T>> pageCache;
+
     /**
      * Creates a new CloudList object.
      *
@@ -84,6 +141,16 @@ public class CloudList<T extends CloudResource> implements Iterable<T> {
         this.index = -1;
         this.isPaginated = (this.res.isPaginated);
         this.size = this.isPaginated ? res.total : list.size();
+        this.loader = new PageLoader(res);
+        this.first = res;
+        this.firstPageSize = list.size();
+        this.pageCache = newPageCache(DEFAULT_PAGE_CACHE_SIZE);
+        //Without a client yet, keep the page size of res
+        CloudClient client = res.getClient();
+        this.adaptivePageSize = (client != null) ? client.getAdaptivePageSize() : null;
+        if (adaptivePageSize != null) {
+            loader.setSizer(newSizer(res.limit));
+        }
     }
 
     /**
@@ -91,16 +158,230 @@ public class CloudList<T extends CloudResource> implements Iterable<T> {
      * there is a next page, false otherwise.
      */
     public boolean nextPage() throws CloudException {
-        res = res.nextPage();
+        CloudResponse next = loader.next();
 
-        if (res != null) {
+        if (next != null) {
+            res = next;
             list.addAll(arrayFromJson.apply(ids, res.body));
+            pageCache.keySet().removeIf(this::isLoaded);
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * Sets the number of items per page to load the pages after the
+     * first with. Because pages are numbered by their size, a page of the
+     * new size may start before the items loaded so far end; the items it
+     * repeats are dropped. To repeat fewer items, the current size is kept
+     * while the next multiple of the new size is at most one page away.
+     *
+     * The size of the first page is set with the "limit" search
+     * parameter of the method that returned the list.
+     *
+     * @param limit The number of items per page, up to the API's maximum.
+     */
+    public void setPageSize(int limit) {
+        pageSize = limit;
+        loader.setSizer(newSizer(loader.getLimit()));
+    }
+
+    /**
+     * Grows the page size of the pages loaded after the first to reduce
+     * the number of requests, based on the latency and size of the pages
+     * loaded. Lists use the client's AdaptivePageSize by default.
+     *
+     * @param adaptivePageSize Decides how the page size grows, or null
+     *              to keep a fixed page size.
+     */
+    public void setAdaptivePageSize(AdaptivePageSize adaptivePageSize) {
+        this.adaptivePageSize = adaptivePageSize;
+        loader.setSizer(newSizer(loader.getLimit()));
+    }
+
+    /**
+     * Creates what decides the page size of a PageLoader.
+     *
+     * @param limit The page size the loader currently requests.
+     */
+    private AdaptivePageSize.Sizer newSizer(int limit) {
+        int target = (pageSize > 0) ? pageSize : limit;
+        return (adaptivePageSize != null)
+            ? adaptivePageSize.start(limit, target)
+            : AdaptivePageSize.fixed(limit, target);
+    }
+
+    /**
+     * Whether or not every item of a page, numbered by the page size
+     * of the first page, has been added to list.
+     */
+    private boolean isLoaded(int page) {
+        return Math.min((long) page * first.limit, size) <= list.size();
+    }
+
+    /**
+     * Loads up to the given number of pages in the background ahead of
+     * the last page added to the list, so iteration does not wait at page
+     * boundaries. At most that many pages are loaded ahead at a time.
+     * Prefetching is off (0) by default.
+     *
+     * @param pages The number of pages to load ahead.
+     */
+    public void setPrefetch(int pages) {
+        prefetch = pages;
+        if (isPaginated) {
+            loader.setWindow(pages);
+        }
+    }
+
+    /**
+     * Loads every remaining page into the list, requesting up to
+     * concurrency pages at the same time. Pages are added to the list
+     * in order.
+     *
+     * @param concurrency The maximum number of pages to request at once.
+     */
+    public void loadAll(int concurrency) throws CloudException {
+        if (!isPaginated) {
+            return;
+        }
+
+        list.ensureCapacity(size);
+        loader.setWindow(Math.max(concurrency, 1));
+        try {
+            while (nextPage()) {}
+        } finally {
+            loader.setWindow(prefetch);
+        }
+    }
+
+    /**
+     * Loads every remaining page into the list, requesting up to
+     * DEFAULT_CONCURRENCY pages at the same time.
+     */
+    public void loadAll() throws CloudException {
+        loadAll(DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Returns the item at the given index. If it is past the pages that
+     * have been added to the list, only the page holding it is loaded,
+     * and kept in a small cache of recently used pages.
+     *
+     * @param index The index of the item.
+     */
+    public T get(int index) throws CloudException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index < list.size()) {
+            return list.get(index);
+        }
+
+        int limit = first.limit;
+        if (limit <= 0) {
+            while (index >= list.size() && nextPage()) {}
+            return list.get(index);
+        }
+
+        int page = index / limit + 1;
+        List<T> items = loadPages(page, page).get(page);
+        if (index % limit >= items.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return items.get(index % limit);
+    }
+
+    /**
+     * Returns the items from fromIndex (inclusive) to toIndex (exclusive),
+     * loading only the pages that hold them. Missing pages are requested
+     * at the same time. The result may be shorter than requested if items
+     * were deleted after the list was created.
+     *
+     * @param fromIndex The index of the first item.
+     * @param toIndex The index after the last item.
+     */
+    public List<T> subList(int fromIndex, int toIndex) throws CloudException {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(
+                "fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + size);
+        }
+
+        int limit = first.limit;
+        if (toIndex <= list.size() || limit <= 0) {
+            while (toIndex > list.size() && nextPage()) {}
+            return new ArrayList<T>(list.subList(fromIndex, Math.min(toIndex, list.size())));
+        }
+
+        ArrayList<T> window = new ArrayList<T>(toIndex - fromIndex);
+        Map<Integer, List<T>> pages = loadPages(fromIndex / limit + 1, (toIndex - 1) / limit + 1);
+        for (int i = fromIndex; i < toIndex; i++) {
+            List<T> items = pages.get(i / limit + 1);
+            if (i % limit < items.size()) {
+                window.add(items.get(i % limit));
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Sets how many pages past the end of the list get() and subList()
+     * keep in memory. The least recently used page is dropped first.
+     *
+     * @param pages The number of pages to keep.
+     */
+    public void setPageCacheSize(int pages) {
+        LinkedHashMap<Integer, List<T>> cache = newPageCache(pages);
+        cache.putAll(pageCache);
+        pageCache = cache;
+    }
+
+    /**
+     * Returns the pages from first to last, from the list or the page
+     * cache where possible. The others are requested concurrently and
+     * added to the page cache.
+     */
+    private Map<Integer, List<T>> loadPages(int from, int to) throws CloudException {
+        HashMap<Integer, List<T>> pages = new HashMap<Integer, List<T>>();
+        LinkedHashMap<Integer, CompletableFuture<CloudResponse>> pending =
+            new LinkedHashMap<Integer, CompletableFuture<CloudResponse>>();
+        int limit = first.limit;
+
+        for (int page = from; page <= to; page++) {
+            List<T> items = isLoaded(page)
+                ? list.subList((page - 1) * limit, Math.min(page * limit, list.size()))
+                : pageCache.get(page);
+            if (items != null) {
+                pages.put(page, items);
+            } else {
+                pending.put(page, first.getPageAsync(page));
+            }
+        }
+
+        try {
+            for (Map.Entry<Integer, CompletableFuture<CloudResponse>> entry : pending.entrySet()) {
+                List<T> items = arrayFromJson.apply(ids, CloudClient.await(entry.getValue()).body);
+                pageCache.put(entry.getKey(), items);
+                pages.put(entry.getKey(), items);
+            }
+        } catch (CloudException | RuntimeException e) {
+            for (CompletableFuture<CloudResponse> future : pending.values()) {
+                future.cancel(false);
+            }
+            throw e;
+        }
+        return pages;
+    }
+
+    private LinkedHashMap<Integer, List<T>> newPageCache(final int maxPages) {
+        return new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
     /**
      * The size of the list.
      */
@@ -130,7 +411,7 @@ public class CloudList<T extends CloudResource> implements Iterable<T> {
                 try {
                     return ((index < (list.size())) || (isPaginated() && nextPage()));
                 } catch (CloudException e) {
-                    return false;
+                    throw new RuntimeException(e);
                 }
             }
 
@@ -145,4 +426,282 @@ public class CloudList<T extends CloudResource> implements Iterable<T> {
         return it;
     }
 
+    /**
+     * Returns a Spliterator that splits along page boundaries. Pages
+     * that are not already in the list are loaded by whichever split
+     * reaches them, without being added to the list.
+     */
+    public Spliterator<T> spliterator() {
+        if (!isPaginated || first.limit <= 0) {
+            return list.spliterator();
+        }
+
+        List<T> current = new ArrayList<T>(list.subList(0, firstPageSize));
+        return new PageSpliterator(current, 2, first.pageCount + 1);
+    }
+
+    /**
+     * Returns a sequential Stream of the list's items.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel Stream of the list's items. Pages are loaded
+     * independently by the threads processing them.
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Spliterator over the items of the current page followed by
+     * the pages from lo (inclusive) to hi (exclusive).
+     */
+    private class PageSpliterator implements Spliterator<T> {
+        private List<T> current;
+        private int index;
+        private int lo;
+        private int hi;
+
+        PageSpliterator(List<T> current, int lo, int hi) {
+            this.current = current;
+            this.index = 0;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (index >= current.size()) {
+                if (lo >= hi) {
+                    return false;
+                }
+                current = loadPage(lo++);
+                index = 0;
+            }
+
+            action.accept(current.get(index++));
+            return true;
+        }
+
+        public Spliterator<T> trySplit() {
+            if (hi - lo < 2) {
+                return null;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            PageSpliterator prefix = new PageSpliterator(
+                current.subList(index, current.size()), lo, mid);
+            current = new ArrayList<T>();
+            index = 0;
+            lo = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            long pages = Math.min((long) (hi - 1) * first.limit, first.total)
+                - (long) (lo - 1) * first.limit;
+            return (current.size() - index) + Math.max(pages, 0);
+        }
+
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+
+        /**
+         * Returns the items on a page, from the list if it has
+         * already been loaded.
+         */
+        private List<T> loadPage(int page) {
+            if (isLoaded(page)) {
+                int from = (page - 1) * first.limit;
+                return new ArrayList<T>(
+                    list.subList(from, Math.min(from + first.limit, list.size())));
+            }
+
+            try {
+                return arrayFromJson.apply(ids, first.getPage(page).body);
+            } catch (CloudException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns a Reactive Streams Publisher of the list's items. Pages
+     * after the first are requested asynchronously as subscribers
+     * request items, and are not added to the list.
+     */
+    public CloudPublisher<T> publisher() {
+        return new CloudPublisher<T>(first,
+            new ArrayList<T>(list.subList(0, firstPageSize)), ids, arrayFromJson);
+    }
+
+    /**
+     * Returns a forward-only view of the list that holds only the page
+     * being iterated (and any pages being prefetched) in memory. Pages
+     * loaded this way are not added to the list, so memory use does not
+     * grow with the number of items iterated.
+     *
+     * If a page fails to load, hasNext() throws a RuntimeException caused
+     * by the CloudException. Calling it again retries the failed page.
+     */
+    public Iterable<T> forwardOnly() {
+        return () -> new StreamingIterator(null, null);
+    }
+
+    /**
+     * Returns a forward-only view of the list that starts after the
+     * position recorded in a cursor.
+     *
+     * @param from The position to resume from, or null to start at the
+     *              beginning.
+     * @throws IllegalArgumentException If the cursor is for another listing.
+     */
+    public Iterable<T> forwardOnly(CloudCursor from) {
+        checkCursor(from);
+        return () -> new StreamingIterator(from, null);
+    }
+
+    /**
+     * Returns a forward-only view of the list that saves a CloudCursor to
+     * a checkpoint file each time all the items of a page have been
+     * iterated. If the file already exists, iteration resumes after the
+     * position it records, so a long iteration that failed or was stopped
+     * can be continued without starting again from the first page.
+     *
+     * @param checkpoint The file to save the cursor to.
+     * @throws IllegalArgumentException If the checkpoint is for another listing.
+     */
+    public Iterable<T> forwardOnly(File checkpoint) {
+        return () -> {
+            CloudCursor from = CloudCursor.load(checkpoint);
+            checkCursor(from);
+            return new StreamingIterator(from, checkpoint);
+        };
+    }
+
+    private void checkCursor(CloudCursor cursor) {
+        if (cursor != null && !cursor.matches(first)) {
+            throw new IllegalArgumentException("The cursor is for another listing: " + cursor);
+        }
+    }
+
+    /**
+     * Iterator that keeps only the current page and drops it once it
+     * has been consumed.
+     */
+    private class StreamingIterator implements Iterator<T> {
+        private PageLoader pages;
+        private List<T> page;
+        private int index;
+
+        /**
+         * The number of items up to the end of the current page, the
+         * page size it was loaded with, and the offset last saved to
+         * the checkpoint.
+         */
+        private int offset;
+        private int pageLimit;
+        private int savedOffset;
+
+        /**
+         * Items to skip on the next page, when resuming from a cursor
+         * created with a different page limit.
+         */
+        private int skip;
+        private boolean finished;
+        private File checkpoint;
+
+        StreamingIterator(CloudCursor from, File checkpoint) {
+            this.checkpoint = checkpoint;
+            this.index = 0;
+            int limit = limit();
+            int resumeAt = (from != null) ? from.getOffset() : 0;
+
+            if (from != null && from.isFinished()) {
+                this.page = new ArrayList<T>();
+                this.offset = resumeAt;
+                this.pageLimit = from.getLimit();
+                this.savedOffset = resumeAt;
+                this.finished = true;
+                this.pages = new PageLoader(first, Math.max(first.total, 0));
+            } else if (limit == 0 || resumeAt < limit) {
+                this.page = new ArrayList<T>(list.subList(0, firstPageSize));
+                this.index = Math.min(resumeAt, firstPageSize);
+                this.offset = limit;
+                this.pageLimit = limit;
+                this.pages = new PageLoader(first);
+            } else {
+                this.page = new ArrayList<T>();
+                this.offset = resumeAt - resumeAt % limit;
+                this.pageLimit = limit;
+                this.savedOffset = this.offset;
+                this.skip = resumeAt % limit;
+                this.pages = new PageLoader(first, this.offset);
+            }
+            this.pages.setSizer(newSizer(limit));
+            this.pages.setWindow(prefetch);
+        }
+
+        public boolean hasNext() {
+            try {
+                while (index >= page.size()) {
+                    if (finished) {
+                        return false;
+                    }
+
+                    save(false);
+                    CloudResponse next = pages.next();
+                    if (next == null) {
+                        finished = true;
+                        save(true);
+                        return false;
+                    }
+                    page = arrayFromJson.apply(ids, next.body);
+                    offset = next.page * next.limit;
+                    pageLimit = next.limit;
+                    index = skip;
+                    skip = 0;
+                }
+                return true;
+            } catch (CloudException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            T item = page.get(index);
+            page.set(index++, null);
+            return item;
+        }
+
+        /**
+         * Saves the position after the current page to the checkpoint,
+         * if it has not been saved already.
+         */
+        private void save(boolean done) {
+            if (checkpoint == null || (offset == savedOffset && !done)) {
+                return;
+            }
+
+            int completed = (pageLimit > 0) ? offset / pageLimit : 0;
+            new CloudCursor(first.url, first.parameters, pageLimit, completed, done)
+                .save(checkpoint);
+            savedOffset = offset;
+        }
+    }
+
+    /**
+     * The number of items per page, or 0 if the list is not paginated.
+     */
+    private int limit() {
+        return (isPaginated && first.limit > 0) ? first.limit : 0;
+    }
+
 }
@@ -0,0 +1,267 @@
+package com.weeblycloud.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Reactive Streams Publisher of the items of a listing. Pages are
+ * requested asynchronously, and only when the subscriber has requested
+ * more items than the pages already loaded hold, so a slow subscriber
+ * never has more than one page buffered. No method blocks the calling
+ * thread.
+ *
+ * Each subscriber gets its own pass over the listing. On Java 9 and
+ * above, org.reactivestreams.FlowAdapters.toFlowPublisher turns a
+ * CloudPublisher into a java.util.concurrent.Flow.Publisher.
+ */
+public class CloudPublisher<T extends CloudResource> implements Publisher<T> {
+    private final CloudClient client;
+    private final String url;
+    private final HashMap<String, Object> parameters;
+    private final String[] ids;
+    private final CloudList.ConvertFunction<String[], JsonElement, ArrayList<T>> arrayFromJson;
+
+    /**
+     * The first page if it has already been loaded, or null.
+     */
+    private final CloudResponse first;
+    private final List<T> firstItems;
+
+    /**
+     * Creates a CloudPublisher that loads the listing at url when
+     * a subscriber first requests items.
+     *
+     * @param client The client to make the requests with, or null
+     *              for the default client.
+     * @param url The url of the listing endpoint.
+     * @param parameters Search query parameters.
+     * @param ids The ids required to construct the CloudResources
+     * @param arrayFromJson Function for converting a JSON response into
+     *          an ArrayList of CloudResources.
+     */
+    public CloudPublisher(CloudClient client, String url, HashMap<String, Object> parameters,
+            String[] ids, CloudList.ConvertFunction<String[], JsonElement, ArrayList<T>> arrayFromJson) {
+        this(client, url, parameters, ids, arrayFromJson, null, null);
+    }
+
+    /**
+     * Creates a CloudPublisher that starts from a page that has
+     * already been loaded.
+     */
+    CloudPublisher(CloudResponse first, List<T> firstItems, String[] ids,
+            CloudList.ConvertFunction<String[], JsonElement, ArrayList<T>> arrayFromJson) {
+        this(null, first.url, null, ids, arrayFromJson, first, firstItems);
+    }
+
+    private CloudPublisher(CloudClient client, String url, HashMap<String, Object> parameters,
+            String[] ids, CloudList.ConvertFunction<String[], JsonElement, ArrayList<T>> arrayFromJson,
+            CloudResponse first, List<T> firstItems) {
+        this.client = client;
+        this.url = url;
+        this.parameters = (parameters != null)
+            ? new HashMap<String, Object>(parameters) : new HashMap<String, Object>();
+        this.ids = ids;
+        this.arrayFromJson = arrayFromJson;
+        this.first = first;
+        this.firstItems = firstItems;
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+
+    /**
+     * Delivers the items to one subscriber. All signals to the subscriber
+     * are sent from drain(), which only one thread runs at a time.
+     */
+    private class PageSubscription implements Subscription {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<CloudResponse> loading;
+        private volatile CloudResponse loaded;
+        private volatile Throwable failure;
+
+        /**
+         * The last page loaded, used to request the pages after it.
+         */
+        private CloudResponse last;
+        private List<T> current;
+        private int index;
+        private int nextPage;
+        private int pageCount;
+        private boolean done;
+
+        PageSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            this.last = first;
+            if (first != null) {
+                this.current = new ArrayList<T>(firstItems);
+                this.nextPage = first.isPaginated ? first.page + 1 : 1;
+                this.pageCount = first.isPaginated ? first.pageCount : 0;
+            } else {
+                this.current = new ArrayList<T>();
+                this.nextPage = 1;
+                this.pageCount = 1;
+            }
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException(
+                    "Requested " + n + " items, must be positive (Reactive Streams rule 3.9)");
+            } else {
+                long r;
+                do {
+                    r = requested.get();
+                } while (r != Long.MAX_VALUE
+                    && !requested.compareAndSet(r, (r + n < 0) ? Long.MAX_VALUE : r + n));
+            }
+            drain();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            CompletableFuture<CloudResponse> future = loading;
+            if (future != null) {
+                future.cancel(false);
+            }
+            drain();
+        }
+
+        /**
+         * Runs emit() until no more signals arrived while it was running.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                emit();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            while (!done) {
+                if (cancelled) {
+                    done = true;
+                    current = null;
+                    return;
+                }
+
+                if (failure == null && loaded != null) {
+                    accept(loaded);
+                }
+
+                if (failure != null) {
+                    done = true;
+                    current = null;
+                    subscriber.onError(failure);
+                    return;
+                }
+
+                if (index < current.size()) {
+                    if (requested.get() == 0) {
+                        return;
+                    }
+                    T item = current.get(index);
+                    current.set(index++, null);
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    subscriber.onNext(item);
+                } else if (loading != null) {
+                    return;
+                } else if (nextPage > pageCount) {
+                    done = true;
+                    current = null;
+                    subscriber.onComplete();
+                    return;
+                } else if (requested.get() == 0) {
+                    return;
+                } else {
+                    load(nextPage++);
+                }
+            }
+        }
+
+        /**
+         * Replaces the current page with a page that has loaded.
+         */
+        private void accept(CloudResponse res) {
+            loaded = null;
+            loading = null;
+            try {
+                current = arrayFromJson.apply(ids, res.body);
+            } catch (CloudException | RuntimeException e) {
+                failure = e;
+                return;
+            }
+            index = 0;
+            if (last == null) {
+                nextPage = res.isPaginated ? res.page + 1 : 1;
+                pageCount = res.isPaginated ? res.pageCount : 0;
+            }
+            last = res;
+        }
+
+        /**
+         * Starts loading a page. A failure to start, such as there being
+         * no default client, is signalled with onError rather than thrown
+         * from request (Reactive Streams rules 2.13 and 3.16).
+         */
+        private void load(int page) {
+            CompletableFuture<CloudResponse> future;
+            try {
+                if (last != null) {
+                    future = last.getPageAsync(page);
+                } else {
+                    CloudClient client = (CloudPublisher.this.client != null)
+                        ? CloudPublisher.this.client : CloudClient.getClient();
+                    if (client == null) {
+                        throw new IllegalStateException(
+                            "No CloudClient given and none set with CloudClient.setKeys");
+                    }
+                    future = client.getAsync(url, parameters);
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+                return;
+            }
+            loading = future;
+            future.whenComplete((res, e) -> {
+                if (e != null) {
+                    Throwable cause = (e instanceof CompletionException && e.getCause() != null)
+                        ? e.getCause() : e;
+                    if (cause instanceof CancellationException) {
+                        return;
+                    }
+                    failure = cause;
+                } else {
+                    loaded = res;
+                }
+                drain();
+            });
+        }
+    }
+}
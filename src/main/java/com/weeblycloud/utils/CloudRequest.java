@@ -0,0 +1,100 @@
+package com.weeblycloud.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A request to the Weebly Cloud API, as seen by interceptors. Requests
+ * are immutable; the with* methods return modified copies.
+ */
+public class CloudRequest {
+    private final String url;
+    private final String method;
+    private final HashMap<String, Object> data;
+    private final Map<String, String> headers;
+
+    /**
+     * Creates a CloudRequest.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param method The HTTP method for the request.
+     * @param data The query parameters or request body.
+     */
+    public CloudRequest(String url, String method, HashMap<String, Object> data) {
+        this(url, method, data, Collections.<String, String>emptyMap());
+    }
+
+    private CloudRequest(String url, String method, HashMap<String, Object> data,
+            Map<String, String> headers) {
+        this.url = url;
+        this.method = method;
+        this.data = (data != null) ? new HashMap<String, Object>(data) : null;
+        this.headers = headers;
+    }
+
+    /**
+     * The endpoint url, not including domain or query string.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The HTTP method for the request.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * The data sent in the query string (GET and DELETE) or request
+     * body (POST, PUT and PATCH). Returns a copy; use withData to
+     * change the data.
+     */
+    public HashMap<String, Object> getData() {
+        return (data != null) ? new HashMap<String, Object>(data) : null;
+    }
+
+    /**
+     * Extra headers sent with the request.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns a copy of this request with a different url.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     */
+    public CloudRequest withUrl(String url) {
+        return new CloudRequest(url, method, data, headers);
+    }
+
+    /**
+     * Returns a copy of this request with different data.
+     *
+     * @param data The query parameters or request body.
+     */
+    public CloudRequest withData(HashMap<String, Object> data) {
+        return new CloudRequest(url, method, data, headers);
+    }
+
+    /**
+     * Returns a copy of this request with an extra header.
+     *
+     * @param name The header name.
+     * @param value The header value.
+     */
+    public CloudRequest withHeader(String name, String value) {
+        LinkedHashMap<String, String> copy = new LinkedHashMap<String, String>(headers);
+        copy.put(name, value);
+        return new CloudRequest(url, method, data, Collections.unmodifiableMap(copy));
+    }
+
+    public String toString() {
+        return method + " " + url;
+    }
+}
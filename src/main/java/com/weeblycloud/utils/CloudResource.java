@@ -2,6 +2,7 @@ package com.weeblycloud.utils;
 
 import com.weeblycloud.Accessible;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import com.google.gson.*;
 
 /**
@@ -13,6 +14,12 @@ public abstract class CloudResource  implements Accessible{
      */
     protected String url;
 
+    /**
+     * Client used for requests about this resource, or null to
+     * use the default client.
+     */
+    protected final CloudClient client;
+
     /**
      * Properties of the resource.
      */
@@ -24,12 +31,29 @@ public abstract class CloudResource  implements Accessible{
     protected HashMap<String, Object> changed;
 
     /**
-     * False if get() has not yet been called.
+     * False until the properties have been fetched by get() or getAsync().
      */
-    protected boolean got;
+    protected volatile boolean got;
+
+    /**
+     * ETag of the last response the properties were read from.
+     */
+    protected String etag;
+
+    /**
+     * Last-Modified value of the last response the properties
+     * were read from.
+     */
+    protected String lastModified;
 
     public CloudResource(String url, boolean initialize, JsonObject existing)
             throws CloudException {
+        this(null, url, initialize, existing);
+    }
+
+    public CloudResource(CloudClient client, String url, boolean initialize,
+            JsonObject existing) throws CloudException {
+        this.client = client;
         this.changed = new HashMap<String, Object>();
         this.properties = new JsonObject();
         this.url = url;
@@ -44,9 +68,40 @@ public abstract class CloudResource  implements Accessible{
      * Fetches the object's properties from the database.
      */
     public void get() throws CloudException {
-        got = true;
-        CloudResponse res = CloudClient.getClient().get(url);
+        CloudClient client = getClient();
+        CloudResponse res;
+        if (got && (etag != null || lastModified != null)) {
+            //Only download the properties if they have changed
+            res = client.getIfChanged(url, etag, lastModified);
+            if (res.notModified) {
+                return;
+            }
+        } else {
+            res = client.get(url);
+        }
+
+        readResponse(res);
+    }
+
+    /**
+     * Fetches the object's properties from the database without
+     * blocking. The returned future completes once the properties
+     * have been updated.
+     */
+    public CompletableFuture<Void> getAsync() {
+        return getClient().getAsync(url).thenAccept(this::readResponse);
+    }
+
+    /**
+     * Sets the properties and validators from a response.
+     *
+     * @param res A response containing the resource.
+     */
+    private void readResponse(CloudResponse res) {
         properties = propertiesFromJson(res.body.getAsJsonObject());
+        etag = res.etag;
+        lastModified = res.lastModified;
+        got = true;
     }
 
     /**
@@ -78,6 +133,10 @@ public abstract class CloudResource  implements Accessible{
         return url;
     }
 
+    public CloudClient getClient() {
+        return (client != null) ? client : CloudClient.getClient();
+    }
+
     public HashMap<String, Object> getChanged() {
         return changed;
     }
@@ -2,10 +2,16 @@ package com.weeblycloud.utils;
 
 import org.apache.http.*;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import com.google.gson.*;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
 import java.net.*;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.http.*;
 import org.apache.http.client.*;
@@ -20,6 +26,14 @@ import org.apache.http.entity.*;
  * A response from the Weebly Cloud API.
  */
 public class CloudResponse{
+    private static final JsonParser PARSER = new JsonParser();
+
+    /**
+     * Error code of the CloudException thrown when a response body
+     * ends before the JSON in it is complete.
+     */
+    public static final int TRUNCATED_CODE = 996;
+
     /**
      * The body of the response.
      */
@@ -62,6 +76,46 @@ public class CloudResponse{
      */
     public boolean isPaginated;
 
+    /**
+     * The HTTP status code of the response.
+     */
+    public int statusCode;
+
+    /**
+     * Whether or not the server responded 304 Not Modified to a
+     * conditional request.
+     */
+    public boolean notModified;
+
+    /**
+     * The number of bytes of the response body that were read.
+     */
+    public long contentLength;
+
+    /**
+     * The ETag validator of the response, or null if none was sent.
+     */
+    public String etag;
+
+    /**
+     * The Last-Modified validator of the response, or null if none was sent.
+     */
+    public String lastModified;
+
+    /**
+     * The client that made the request, used to fetch other pages, or
+     * null to use the default client.
+     */
+    CloudClient client;
+
+    /**
+     * Receives the elements of a top-level JSON array one at a time
+     * as the response body is read.
+     */
+    public interface ElementHandler {
+        void handle(JsonElement element) throws CloudException;
+    }
+
     /**
      * Creates a CloudResponse.
      *
@@ -69,36 +123,66 @@ public class CloudResponse{
      * @param url The endpoint URL used to retrieve the response
      * @param parameters The query parameters used to retrieve the response.
      */
-    public CloudResponse(CloseableHttpResponse response, String url,
+    public CloudResponse(HttpResponse response, String url,
             HashMap<String,Object> parameters) throws CloudException {
+        this(response, url, parameters, null);
+    }
+
+    /**
+     * Creates a CloudResponse, decoding the body directly from the
+     * response stream. If handler is given and the body is a JSON array,
+     * each element is passed to the handler as soon as it is read
+     * instead of being collected, and body is left as an empty array.
+     *
+     * @param response The body of the response in JSON format.
+     * @param url The endpoint URL used to retrieve the response
+     * @param parameters The query parameters used to retrieve the response.
+     * @param handler Receives array elements as they are read, or null to
+     *              build the whole body.
+     */
+    public CloudResponse(HttpResponse response, String url,
+            HashMap<String,Object> parameters, ElementHandler handler)
+            throws CloudException {
         this.url = url;
-        this.parameters = parameters;       
+        this.parameters = parameters;
         int statusCode = response.getStatusLine().getStatusCode();
-        
-        //Get the JSON body of the response
+
+        //Decode the JSON body of the response
         //unless the status code is 204
         HttpEntity myEntity = response.getEntity();
-        String bodyJson = "";
-        if(statusCode != 204) {
+        JsonElement body = JsonNull.INSTANCE;
+        if (statusCode != 204 && myEntity != null) {
             try {
-                bodyJson = EntityUtils.toString(myEntity);
+                body = readBody(myEntity, (statusCode < 400) ? handler : null);
                 EntityUtils.consume(myEntity);
             } catch (IOException e) {
                 throw new RuntimeException(e);
+            } catch (CloudException | JsonParseException e) {
+                if (statusCode < 400) {
+                    throw e;
+                }
             }
         }
 
-        JsonElement body = new JsonParser().parse(bodyJson);
-
         if ((body.isJsonObject() && body.getAsJsonObject().has("error"))) {
             JsonObject error = body.getAsJsonObject().getAsJsonObject("error");
-            throw new CloudException(error);
-        } else if (response.getStatusLine().getStatusCode() >= 400) {
-            throw new CloudException("Error performing request",
-                response.getStatusLine().getStatusCode());
+            throw new CloudException(error).setStatusCode(statusCode)
+                .setRetryAfter(CloudClient.retryAfter(response));
+        } else if (statusCode >= 400) {
+            throw new CloudException("Error performing request", statusCode)
+                .setStatusCode(statusCode)
+                .setRetryAfter(CloudClient.retryAfter(response));
         }
 
         this.body = body;
+        this.statusCode = statusCode;
+        this.notModified = (statusCode == 304);
+
+        //Keep validators for conditional requests
+        Header etagHeader = response.getFirstHeader("ETag");
+        Header lastModifiedHeader = response.getFirstHeader("Last-Modified");
+        this.etag = (etagHeader != null) ? etagHeader.getValue() : null;
+        this.lastModified = (lastModifiedHeader != null) ? lastModifiedHeader.getValue() : null;
 
         //Process the headers that are returned from paginated endpoints
         Header totalHeader = response.getFirstHeader("X-Resultset-Total");
@@ -111,6 +195,199 @@ public class CloudResponse{
         this.pageCount = (int) Math.ceil(((float) total) / limit);
     }
 
+    /**
+     * Creates a copy of a response that shares nothing with it
+     * that can be modified.
+     */
+    private CloudResponse(CloudResponse other) {
+        this.body = deepCopy(other.body);
+        this.url = other.url;
+        this.total = other.total;
+        this.page = other.page;
+        this.pageCount = other.pageCount;
+        this.limit = other.limit;
+        this.parameters = (other.parameters != null)
+            ? new HashMap<String, Object>(other.parameters) : null;
+        this.isPaginated = other.isPaginated;
+        this.statusCode = other.statusCode;
+        this.notModified = other.notModified;
+        this.contentLength = other.contentLength;
+        this.etag = other.etag;
+        this.lastModified = other.lastModified;
+        this.client = other.client;
+    }
+
+    /**
+     * Returns a copy of this response with its own copy of the body,
+     * for handing one response to several callers.
+     */
+    CloudResponse copy() {
+        return new CloudResponse(this);
+    }
+
+    /**
+     * Copies a JSON tree. JsonElement.deepCopy is not public in the
+     * version of Gson this library is built against.
+     *
+     * @param element The tree to copy.
+     */
+    static JsonElement deepCopy(JsonElement element) {
+        if (element == null) {
+            return null;
+        } else if (element.isJsonObject()) {
+            JsonObject copy = new JsonObject();
+            for (java.util.Map.Entry<String, JsonElement> entry
+                    : element.getAsJsonObject().entrySet()) {
+                copy.add(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            return copy;
+        } else if (element.isJsonArray()) {
+            JsonArray copy = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                copy.add(deepCopy(item));
+            }
+            return copy;
+        }
+
+        //Primitives and null are immutable
+        return element;
+    }
+
+    /**
+     * Reads the body from the entity's stream without first
+     * buffering it as a String.
+     *
+     * @param entity The response entity.
+     * @param handler Receives the elements of a top-level array, or null.
+     */
+    private JsonElement readBody(HttpEntity entity, ElementHandler handler)
+            throws IOException, CloudException {
+        ContentType contentType = ContentType.get(entity);
+        Charset charset = (contentType != null && contentType.getCharset() != null)
+            ? contentType.getCharset()
+            : StandardCharsets.UTF_8;
+
+        InputStream stream = entity.getContent();
+        if (stream == null) {
+            return JsonNull.INSTANCE;
+        }
+
+        //Count the bytes read, for metrics
+        stream = new FilterInputStream(stream) {
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    contentLength++;
+                }
+                return b;
+            }
+
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    contentLength += n;
+                }
+                return n;
+            }
+        };
+
+        JsonReader reader = new JsonReader(new InputStreamReader(stream, charset));
+        reader.setLenient(true);
+        try {
+            JsonToken token;
+            try {
+                token = reader.peek();
+            } catch (EOFException e) {
+                //An empty body
+                return JsonNull.INSTANCE;
+            }
+
+            if (handler == null || token != JsonToken.BEGIN_ARRAY) {
+                return PARSER.parse(reader);
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                handler.handle(PARSER.parse(reader));
+            }
+            reader.endArray();
+
+            return new JsonArray();
+        } catch (EOFException e) {
+            throw truncated();
+        } catch (JsonSyntaxException e) {
+            if (e.getCause() instanceof EOFException) {
+                throw truncated();
+            }
+            throw e;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private CloudException truncated() {
+        return new CloudException("Response body was truncated after "
+            + contentLength + " bytes", TRUNCATED_CODE);
+    }
+
+    /**
+     * Gets the given page of the result set. This response's parameters
+     * are not modified, so pages can be requested from any thread.
+     *
+     * @param page The page number, starting from 1.
+     */
+    public CloudResponse getPage(int page) throws CloudException {
+        return getClient().get(url, pageParameters(page));
+    }
+
+    /**
+     * Gets the given page of the result set without blocking.
+     *
+     * @param page The page number, starting from 1.
+     */
+    public CompletableFuture<CloudResponse> getPageAsync(int page) {
+        return getClient().getAsync(url, pageParameters(page));
+    }
+
+    /**
+     * Gets the given page of the result set, split into pages of the
+     * given size.
+     *
+     * @param page The page number, starting from 1.
+     * @param limit The number of items per page.
+     */
+    public CloudResponse getPage(int page, int limit) throws CloudException {
+        HashMap<String, Object> pageParameters = pageParameters(page);
+        pageParameters.put("limit", limit);
+        return getClient().get(url, pageParameters);
+    }
+
+    /**
+     * Gets the given page of the result set, split into pages of the
+     * given size, without blocking.
+     *
+     * @param page The page number, starting from 1.
+     * @param limit The number of items per page.
+     */
+    public CompletableFuture<CloudResponse> getPageAsync(int page, int limit) {
+        HashMap<String, Object> pageParameters = pageParameters(page);
+        pageParameters.put("limit", limit);
+        return getClient().getAsync(url, pageParameters);
+    }
+
+    /**
+     * The client that made the request for this response.
+     */
+    public CloudClient getClient() {
+        return (client != null) ? client : CloudClient.getClient();
+    }
+
+    private HashMap<String, Object> pageParameters(int page) {
+        HashMap<String, Object> pageParameters = new HashMap<String, Object>(parameters);
+        pageParameters.put("page", page);
+        return pageParameters;
+    }
+
     /**
      * Gets the next page, if it exists.
      *
@@ -122,8 +399,7 @@ public class CloudResponse{
             return null;
         }
 
-        parameters.put("page",page+1);
-        return CloudClient.getClient().get(url, parameters);
+        return getPage(page + 1);
     }
 
     /**
@@ -137,8 +413,7 @@ public class CloudResponse{
             return null;
         }
 
-        parameters.put("page",page-1);
-        return CloudClient.getClient().get(url, parameters);
+        return getPage(page - 1);
     }
 
     /**
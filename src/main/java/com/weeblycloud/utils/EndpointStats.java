@@ -0,0 +1,99 @@
+package com.weeblycloud.utils;
+
+import java.beans.ConstructorProperties;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A snapshot of the metrics recorded for one endpoint. Latencies are in
+ * microseconds.
+ */
+public class EndpointStats {
+    private final String endpoint;
+    private final long requestCount;
+    private final long errorCount;
+    private final Map<Integer, Long> errorsByCode;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final double meanLatency;
+    private final long p50Latency;
+    private final long p90Latency;
+    private final long p99Latency;
+    private final long maxLatency;
+
+    @ConstructorProperties({"endpoint", "requestCount", "errorCount", "errorsByCode",
+        "bytesSent", "bytesReceived", "meanLatency", "p50Latency", "p90Latency",
+        "p99Latency", "maxLatency"})
+    public EndpointStats(String endpoint, long requestCount, long errorCount,
+            Map<Integer, Long> errorsByCode, long bytesSent, long bytesReceived,
+            double meanLatency, long p50Latency, long p90Latency, long p99Latency,
+            long maxLatency) {
+        this.endpoint = endpoint;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.errorsByCode = Collections.unmodifiableMap(errorsByCode);
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.meanLatency = meanLatency;
+        this.p50Latency = p50Latency;
+        this.p90Latency = p90Latency;
+        this.p99Latency = p99Latency;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * The HTTP method and endpoint template, e.g. "GET user/{id}/site".
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Error counts by CloudException code. Errors that were not a
+     * CloudException, such as connection failures, are counted under -1.
+     */
+    public Map<Integer, Long> getErrorsByCode() {
+        return errorsByCode;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    public long getP50Latency() {
+        return p50Latency;
+    }
+
+    public long getP90Latency() {
+        return p90Latency;
+    }
+
+    public long getP99Latency() {
+        return p99Latency;
+    }
+
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    public String toString() {
+        return endpoint + ": " + requestCount + " requests, " + errorCount + " errors, p50="
+            + p50Latency + "us p99=" + p99Latency + "us max=" + maxLatency + "us";
+    }
+}
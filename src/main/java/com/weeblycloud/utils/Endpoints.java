@@ -0,0 +1,42 @@
+package com.weeblycloud.utils;
+
+/**
+ * Helpers for Weebly Cloud API endpoint urls.
+ */
+public class Endpoints {
+    private Endpoints() {}
+
+    /**
+     * Returns the template of an endpoint url, with the IDs replaced by
+     * {id}. Endpoint urls alternate between resource names and IDs, so
+     * every second segment is an ID. For example,
+     * "user/12/site/34/member" becomes "user/{id}/site/{id}/member".
+     *
+     * @param url The endpoint url, not including domain or query string.
+     */
+    public static String template(String url) {
+        StringBuilder template = new StringBuilder(url.length());
+        int segment = 0;
+        int start = 0;
+        while (start <= url.length()) {
+            int end = url.indexOf('/', start);
+            if (end < 0) {
+                end = url.length();
+            }
+
+            if (segment > 0) {
+                template.append('/');
+            }
+            if (segment % 2 == 1) {
+                template.append("{id}");
+            } else {
+                template.append(url, start, end);
+            }
+
+            segment++;
+            start = end + 1;
+        }
+
+        return template.toString();
+    }
+}
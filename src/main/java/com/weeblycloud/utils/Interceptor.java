@@ -0,0 +1,77 @@
+package com.weeblycloud.utils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Wraps the requests made by a CloudClient. Interceptors are called in
+ * the order they were added; each one receives a Chain, may inspect or
+ * replace the request, and calls proceed to pass it on to the next
+ * interceptor and finally to the client. An interceptor can also return
+ * a response without proceeding.
+ *
+ * Asynchronous requests go through interceptAsync. Unless it is
+ * overridden, it runs intercept on one of the client's interceptor
+ * threads, so every request is intercepted without blocking the caller.
+ * The thread is held until the response arrives, so on Java versions
+ * before 21 at most CloudClient.Builder.setInterceptorThreads
+ * asynchronous requests pass through such an interceptor at once, and
+ * the rest wait for a thread. Interceptors that see many asynchronous
+ * requests should override interceptAsync to avoid holding a thread for
+ * each one.
+ */
+public interface Interceptor {
+    /**
+     * The rest of the pipeline for a blocking request.
+     */
+    public interface Chain {
+        /**
+         * The request being made.
+         */
+        public CloudRequest request();
+
+        /**
+         * Passes a request to the next interceptor, or sends it
+         * if this is the last interceptor.
+         *
+         * @param request The request to pass on.
+         */
+        public CloudResponse proceed(CloudRequest request) throws CloudException;
+    }
+
+    /**
+     * The rest of the pipeline for an asynchronous request.
+     */
+    public interface AsyncChain {
+        /**
+         * The request being made.
+         */
+        public CloudRequest request();
+
+        /**
+         * Passes a request to the next interceptor, or sends it
+         * if this is the last interceptor.
+         *
+         * @param request The request to pass on.
+         */
+        public CompletableFuture<CloudResponse> proceed(CloudRequest request);
+    }
+
+    /**
+     * Intercepts a blocking request.
+     *
+     * @param chain The rest of the pipeline.
+     * @return The response to return to the caller.
+     */
+    public CloudResponse intercept(Chain chain) throws CloudException;
+
+    /**
+     * Intercepts an asynchronous request. By default, runs intercept
+     * on an interceptor thread.
+     *
+     * @param chain The rest of the pipeline.
+     * @return The response to return to the caller.
+     */
+    default CompletableFuture<CloudResponse> interceptAsync(AsyncChain chain) {
+        return CloudClient.interceptBlocking(this, chain);
+    }
+}
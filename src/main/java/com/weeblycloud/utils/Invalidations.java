@@ -0,0 +1,93 @@
+package com.weeblycloud.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records when cached paths were invalidated, so that a response to a
+ * GET that started before a write to its path is not cached after the
+ * write has invalidated the path.
+ *
+ * Paths are hashed into a fixed number of slots, so memory use does not
+ * grow with the number of paths written to. Two paths sharing a slot can
+ * only cause a response to be dropped rather than cached, never a stale
+ * response to be cached.
+ */
+class Invalidations {
+    private static final int SLOTS = 1024;
+
+    /**
+     * Increases on every invalidation.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The last invalidation of each path, by slot.
+     */
+    private final AtomicLongArray paths = new AtomicLongArray(SLOTS);
+
+    /**
+     * The last invalidation below each path, by slot.
+     */
+    private final AtomicLongArray below = new AtomicLongArray(SLOTS);
+
+    /**
+     * Returns the current point in the sequence of invalidations. Taken
+     * before a GET is sent and passed to isInvalidated() when its
+     * response arrives.
+     */
+    long current() {
+        return sequence.get();
+    }
+
+    /**
+     * Records the invalidation of a path, which also invalidates its
+     * sub-paths and the paths above it.
+     *
+     * @param url The endpoint url that was written to.
+     */
+    void invalidate(String url) {
+        long now = sequence.incrementAndGet();
+        raise(paths, slot(url), now);
+        for (int i = url.lastIndexOf('/'); i > 0; i = url.lastIndexOf('/', i - 1)) {
+            raise(below, slot(url.substring(0, i)), now);
+        }
+    }
+
+    /**
+     * Whether a path may have been invalidated since a point in the
+     * sequence returned by current().
+     *
+     * @param url The endpoint url of the response.
+     * @param since The point in the sequence the request started at.
+     */
+    boolean isInvalidated(String url, long since) {
+        if (sequence.get() == since) {
+            return false;
+        }
+
+        if (paths.get(slot(url)) > since || below.get(slot(url)) > since) {
+            return true;
+        }
+        for (int i = url.lastIndexOf('/'); i > 0; i = url.lastIndexOf('/', i - 1)) {
+            if (paths.get(slot(url.substring(0, i))) > since) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int slot(String path) {
+        //Paths differ mostly in their last characters, so spread
+        //the hash before taking its top bits
+        return (path.hashCode() * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(SLOTS));
+    }
+
+    private static void raise(AtomicLongArray array, int slot, long value) {
+        long current;
+        do {
+            current = array.get(slot);
+        } while (current < value && !array.compareAndSet(slot, current, value));
+    }
+}
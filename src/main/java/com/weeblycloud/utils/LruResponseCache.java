@@ -0,0 +1,193 @@
+package com.weeblycloud.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResponseCache that keeps up to a fixed number of responses, evicting
+ * the least recently used. Only endpoints that have been given a TTL with
+ * setTtl are cached.
+ *
+ * Endpoints are matched by template, where a segment in braces matches
+ * any single path segment. For example, "plan", "plan/{id}" and
+ * "user/{id}/theme".
+ */
+public class LruResponseCache implements ResponseCache {
+    /**
+     * How long responses for an endpoint template are cached.
+     */
+    private static class Rule {
+        String[] template;
+        long ttl;
+        long staleWhileRevalidate;
+    }
+
+    /**
+     * A cached response and when it expires.
+     */
+    private static class Item {
+        String url;
+        CloudResponse response;
+        long expires;
+        long staleUntil;
+    }
+
+    private static final Map<String, String> NO_HEADERS = Collections.<String, String>emptyMap();
+
+    private final List<Rule> rules;
+
+    private final LinkedHashMap<String, Item> items;
+
+    /**
+     * Creates an LruResponseCache.
+     *
+     * @param maxEntries The maximum number of responses to keep.
+     */
+    public LruResponseCache(final int maxEntries) {
+        this.rules = new CopyOnWriteArrayList<Rule>();
+        this.items = new LinkedHashMap<String, Item>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, Item> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Caches responses from endpoints matching a template.
+     *
+     * @param template The endpoint template, e.g. "user/{id}/theme".
+     * @param ttl Milliseconds a response is served without being refreshed.
+     * @param staleWhileRevalidate Milliseconds after the ttl during which
+     *              the expired response is still served while it is
+     *              refreshed in the background.
+     */
+    public void setTtl(String template, long ttl, long staleWhileRevalidate) {
+        Rule rule = new Rule();
+        rule.template = template.split("/");
+        rule.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        rule.staleWhileRevalidate = TimeUnit.MILLISECONDS.toNanos(staleWhileRevalidate);
+        rules.add(rule);
+    }
+
+    /**
+     * Caches responses from endpoints matching a template.
+     *
+     * @param template The endpoint template, e.g. "user/{id}/theme".
+     * @param ttl Milliseconds a response is cached for.
+     */
+    public void setTtl(String template, long ttl) {
+        setTtl(template, ttl, 0);
+    }
+
+    public Entry get(String url, HashMap<String, Object> parameters) {
+        return get(url, parameters, NO_HEADERS);
+    }
+
+    /**
+     * Gets a cached response. Responses are cached separately for
+     * each set of headers.
+     */
+    public Entry get(String url, HashMap<String, Object> parameters,
+            Map<String, String> headers) {
+        String key = ResponseCache.key(url, parameters, headers);
+        long now = System.nanoTime();
+
+        synchronized (items) {
+            Item item = items.get(key);
+            if (item == null) {
+                return null;
+            } else if (now - item.expires < 0) {
+                return new Entry(item.response, false);
+            } else if (now - item.staleUntil < 0) {
+                return new Entry(item.response, true);
+            }
+
+            items.remove(key);
+            return null;
+        }
+    }
+
+    public void put(String url, HashMap<String, Object> parameters, CloudResponse response) {
+        put(url, parameters, NO_HEADERS, response);
+    }
+
+    public void put(String url, HashMap<String, Object> parameters,
+            Map<String, String> headers, CloudResponse response) {
+        Rule rule = match(url);
+        if (rule == null) {
+            return;
+        }
+
+        Item item = new Item();
+        item.url = url;
+        item.response = response;
+        item.expires = System.nanoTime() + rule.ttl;
+        item.staleUntil = item.expires + rule.staleWhileRevalidate;
+
+        synchronized (items) {
+            items.put(ResponseCache.key(url, parameters, headers), item);
+        }
+    }
+
+    public void invalidate(String url) {
+        synchronized (items) {
+            Iterator<Item> it = items.values().iterator();
+            while (it.hasNext()) {
+                String cached = it.next().url;
+                if (cached.equals(url)
+                        || cached.startsWith(url + "/")
+                        || url.startsWith(cached + "/")) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every cached response.
+     */
+    public void clear() {
+        synchronized (items) {
+            items.clear();
+        }
+    }
+
+    /**
+     * The number of cached responses.
+     */
+    public int size() {
+        synchronized (items) {
+            return items.size();
+        }
+    }
+
+    /**
+     * Returns the first rule whose template matches the url, or null.
+     */
+    private Rule match(String url) {
+        String[] segments = url.split("/");
+        for (Rule rule : rules) {
+            if (rule.template.length != segments.length) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int i = 0; i < segments.length && matches; i++) {
+                matches = rule.template[i].startsWith("{")
+                    || rule.template[i].equals(segments[i]);
+            }
+
+            if (matches) {
+                return rule;
+            }
+        }
+
+        return null;
+    }
+}
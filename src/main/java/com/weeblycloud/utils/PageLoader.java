@@ -0,0 +1,228 @@
+package com.weeblycloud.utils;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.gson.JsonArray;
+
+/**
+ * Loads the pages of a paginated result set in order. Up to a window
+ * of pages past the last one returned can be requested in the
+ * background, so the next page is often ready by the time it is needed.
+ *
+ * Pages are tracked by the offset of their first item, so the page
+ * size can change between pages without skipping or repeating items.
+ * When a page of the new size starts before that offset, the items
+ * before it are dropped from the page.
+ */
+class PageLoader {
+    /**
+     * A page that has been requested but not returned.
+     */
+    private static class Request {
+        final int offset;
+        final int limit;
+        final long started;
+        final CompletableFuture<CloudResponse> future;
+
+        Request(int offset, int limit, CompletableFuture<CloudResponse> future) {
+            this.offset = offset;
+            this.limit = limit;
+            this.started = System.nanoTime();
+            this.future = future;
+        }
+    }
+
+    /**
+     * The page the result set was first loaded with, used to request
+     * the other pages.
+     */
+    private CloudResponse first;
+
+    /**
+     * The number of items in the result set.
+     */
+    private int total;
+
+    /**
+     * The offset of the next page that has not been requested yet.
+     */
+    private int nextOffset;
+
+    /**
+     * Pages that have been requested but not returned, in page order.
+     */
+    private ArrayDeque<Request> pending;
+
+    /**
+     * The number of pages to keep requested ahead of the last one returned.
+     */
+    private int window;
+
+    /**
+     * Decides the page size of each request.
+     */
+    private AdaptivePageSize.Sizer sizer;
+
+    /**
+     * Creates a PageLoader that returns the pages after first.
+     *
+     * @param first The page to start after.
+     */
+    PageLoader(CloudResponse first) {
+        this(first, first.page * first.limit);
+    }
+
+    /**
+     * Creates a PageLoader that returns the pages from the given offset
+     * of the result set first belongs to.
+     *
+     * @param first Any page of the result set.
+     * @param offset The number of items before the first page to return.
+     *              Must be a multiple of the page size of first.
+     */
+    PageLoader(CloudResponse first, int offset) {
+        boolean paginated = first.isPaginated && first.limit > 0;
+        this.first = first;
+        this.total = paginated ? first.total : 0;
+        this.nextOffset = paginated ? offset : 0;
+        this.pending = new ArrayDeque<Request>();
+        this.window = 0;
+        this.sizer = AdaptivePageSize.fixed(first.limit, first.limit);
+    }
+
+    /**
+     * Sets how many pages to request ahead of the last one returned,
+     * and starts requesting them. 0 loads each page only when next()
+     * is called.
+     *
+     * @param window The number of pages to request ahead.
+     */
+    void setWindow(int window) {
+        this.window = Math.max(window, 0);
+        fill(this.window);
+    }
+
+    /**
+     * Sets what decides the page size of the pages requested from now on.
+     *
+     * @param sizer Decides the page size of each request.
+     */
+    void setSizer(AdaptivePageSize.Sizer sizer) {
+        this.sizer = sizer;
+    }
+
+    /**
+     * The page size of the last page requested.
+     */
+    int getLimit() {
+        return sizer.getLimit();
+    }
+
+    /**
+     * Whether or not there are pages left to return.
+     */
+    boolean hasNext() {
+        return !pending.isEmpty() || nextOffset < total;
+    }
+
+    /**
+     * Returns the next page, waiting for it to load if needed.
+     *
+     * @return The next page, or null if there are no pages left.
+     */
+    CloudResponse next() throws CloudException {
+        while (hasNext()) {
+            int offset;
+            int limit;
+            long started;
+            CloudResponse res;
+
+            if (window == 0 && pending.isEmpty()) {
+                offset = nextOffset;
+                limit = sizer.limitAt(offset);
+                int page = offset / limit + 1;
+                started = System.nanoTime();
+                res = (limit == first.limit)
+                    ? first.getPage(page)
+                    : first.getPage(page, limit);
+                nextOffset = page * limit;
+            } else {
+                fill(Math.max(window, 1));
+                Request request = pending.poll();
+                offset = request.offset;
+                limit = request.limit;
+                started = request.started;
+                try {
+                    res = CloudClient.await(request.future);
+                } catch (CloudException | RuntimeException e) {
+                    //Drop the pages requested after the failed one, so that
+                    //calling next() again retries from the failed page
+                    cancel();
+                    nextOffset = offset;
+                    throw e;
+                }
+            }
+
+            if (sizer.isClamped(limit, res)) {
+                //The page is not at the requested offset, so request
+                //it again with a page size the API accepts
+                cancel();
+                nextOffset = offset;
+                continue;
+            }
+
+            trim(res, offset % limit);
+            sizer.onPage(limit, res, Math.min(limit - offset % limit, total - offset),
+                System.nanoTime() - started);
+            fill(window);
+            return res;
+        }
+        return null;
+    }
+
+    /**
+     * Cancels pages that have been requested but not returned.
+     */
+    void cancel() {
+        if (!pending.isEmpty()) {
+            nextOffset = pending.peek().offset;
+        }
+        for (Request request : pending) {
+            request.future.cancel(false);
+        }
+        pending.clear();
+    }
+
+    private void fill(int size) {
+        while (pending.size() < size && nextOffset < total) {
+            int limit = sizer.limitAt(nextOffset);
+            int page = nextOffset / limit + 1;
+            CompletableFuture<CloudResponse> future = (limit == first.limit)
+                ? first.getPageAsync(page)
+                : first.getPageAsync(page, limit);
+            pending.add(new Request(nextOffset, limit, future));
+            nextOffset = page * limit;
+        }
+    }
+
+    /**
+     * Drops the items at the start of a page that come before the offset
+     * it was requested for.
+     *
+     * @param res The page.
+     * @param items The number of items to drop.
+     */
+    private static void trim(CloudResponse res, int items) {
+        if (items <= 0 || res.body == null || !res.body.isJsonArray()) {
+            return;
+        }
+
+        JsonArray all = res.body.getAsJsonArray();
+        JsonArray rest = new JsonArray();
+        for (int i = items; i < all.size(); i++) {
+            rest.add(all.get(i));
+        }
+        res.body = rest;
+    }
+}
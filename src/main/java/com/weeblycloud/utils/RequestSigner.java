@@ -0,0 +1,123 @@
+package com.weeblycloud.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Signs Weebly Cloud API requests with the API secret. Produces the
+ * value of the X-Signed-Request-Hash header: the Base64 encoding of
+ * the lowercase hex HMAC-SHA256 of the request.
+ *
+ * Each thread keeps its own keyed Mac and output buffers, so signing
+ * does not look up the algorithm or rebuild the key on every request.
+ */
+public class RequestSigner {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final byte[] HEX_DIGITS =
+        "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] NEWLINE = new byte[]{'\n'};
+
+    /**
+     * Keyed Mac that is cloned for each thread, if the provider supports it.
+     */
+    private final Mac prototype;
+
+    private final SecretKeySpec secretKey;
+
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * Per-thread buffers for the raw hash and its hex encoding.
+     */
+    private final ThreadLocal<byte[][]> buffers;
+
+    /**
+     * Creates a RequestSigner.
+     *
+     * @param apiSecret The API secret key.
+     */
+    public RequestSigner(String apiSecret) {
+        this.secretKey = new SecretKeySpec(
+            apiSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.prototype = newMac();
+        this.mac = ThreadLocal.withInitial(this::copyPrototype);
+        this.buffers = ThreadLocal.withInitial(() -> new byte[][]{
+            new byte[prototype.getMacLength()],
+            new byte[prototype.getMacLength() * 2]
+        });
+    }
+
+    /**
+     * Returns the signature of a message.
+     *
+     * @param message The message to sign.
+     */
+    public String sign(String message) {
+        Mac m = mac.get();
+        m.update(message.getBytes(StandardCharsets.UTF_8));
+        return finish(m);
+    }
+
+    /**
+     * Returns the signature of a request, equivalent to signing
+     * method + "\n" + url + "\n" + content without building the
+     * concatenated message.
+     *
+     * @param method The HTTP method of the request.
+     * @param url The endpoint url, not including domain or query string.
+     * @param content The UTF-8 encoded request body.
+     */
+    public String sign(String method, String url, byte[] content) {
+        Mac m = mac.get();
+        m.update(method.getBytes(StandardCharsets.UTF_8));
+        m.update(NEWLINE);
+        m.update(url.getBytes(StandardCharsets.UTF_8));
+        m.update(NEWLINE);
+        m.update(content);
+        return finish(m);
+    }
+
+    private String finish(Mac m) {
+        byte[][] buf = buffers.get();
+        byte[] hash = buf[0];
+        byte[] hex = buf[1];
+
+        try {
+            m.doFinal(hash, 0);
+        } catch (ShortBufferException e) {
+            throw new RuntimeException(e);
+        }
+
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+
+        return Base64.getEncoder().encodeToString(hex);
+    }
+
+    private Mac copyPrototype() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac m = Mac.getInstance(ALGORITHM);
+            m.init(secretKey);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.weeblycloud.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A cache of GET responses that can be plugged into a CloudClient with
+ * setCache. The cache decides which endpoints are cached and for how long;
+ * the CloudClient serves hits, refreshes stale entries in the background
+ * and invalidates entries when a write is made to their path.
+ */
+public interface ResponseCache {
+    /**
+     * A cached response.
+     */
+    public static class Entry {
+        /**
+         * The cached response. It must not be modified; the
+         * CloudClient gives each caller that hits it a copy.
+         */
+        public final CloudResponse response;
+
+        /**
+         * Whether the entry has expired and should be refreshed. A stale
+         * entry is still returned while it is being refreshed.
+         */
+        public final boolean stale;
+
+        public Entry(CloudResponse response, boolean stale) {
+            this.response = response;
+            this.stale = stale;
+        }
+    }
+
+    /**
+     * Gets a cached response.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters The query parameters of the request.
+     * @return The cached entry, or null if there is no usable entry.
+     */
+    public Entry get(String url, HashMap<String, Object> parameters);
+
+    /**
+     * Caches a response, if the cache accepts responses for its endpoint.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters The query parameters of the request.
+     * @param response The response to cache.
+     */
+    public void put(String url, HashMap<String, Object> parameters, CloudResponse response);
+
+    /**
+     * Gets a cached response for a request with extra headers. Headers
+     * may change the response, so unless this is overridden, requests
+     * with headers are not served from the cache.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters The query parameters of the request.
+     * @param headers The extra headers of the request.
+     * @return The cached entry, or null if there is no usable entry.
+     */
+    default Entry get(String url, HashMap<String, Object> parameters,
+            Map<String, String> headers) {
+        return headers.isEmpty() ? get(url, parameters) : null;
+    }
+
+    /**
+     * Caches a response to a request with extra headers. Unless this is
+     * overridden, responses to requests with headers are not cached.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters The query parameters of the request.
+     * @param headers The extra headers of the request.
+     * @param response The response to cache.
+     */
+    default void put(String url, HashMap<String, Object> parameters,
+            Map<String, String> headers, CloudResponse response) {
+        if (headers.isEmpty()) {
+            put(url, parameters, response);
+        }
+    }
+
+    /**
+     * Removes the cached responses for a path, its sub-paths and the
+     * paths above it. Called after a write request to the path.
+     *
+     * @param url The endpoint url that was written to.
+     */
+    public void invalidate(String url);
+
+    /**
+     * Builds a cache key from an endpoint url and its query parameters.
+     * Parameters are sorted so their order does not matter.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters The query parameters of the request.
+     */
+    public static String key(String url, Map<String, Object> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return url;
+        }
+
+        StringBuilder key = new StringBuilder(url).append('?');
+        for (Map.Entry<String, Object> entry : new TreeMap<String, Object>(parameters).entrySet()) {
+            key.append(entry.getKey()).append('=').append(entry.getValue()).append('&');
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Builds a cache key from an endpoint url, its query parameters and
+     * the extra headers of the request.
+     *
+     * @param url The endpoint url, not including domain or query string.
+     * @param parameters The query parameters of the request.
+     * @param headers The extra headers of the request.
+     */
+    public static String key(String url, Map<String, Object> parameters,
+            Map<String, String> headers) {
+        String key = key(url, parameters);
+        return (headers == null || headers.isEmpty())
+            ? key
+            : key + "#" + new TreeMap<String, String>(headers);
+    }
+}
@@ -0,0 +1,157 @@
+package com.weeblycloud.utils;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+
+/**
+ * Decides whether and when a failed request is retried. Requests are
+ * retried on timeouts, connection errors, 429 and 5xx responses, waiting
+ * between attempts with exponential backoff and decorrelated jitter, or
+ * as long as a 429 or 503 response's Retry-After header asks if that is
+ * longer. Each request gets at most maxAttempts attempts, and is not
+ * retried once the retry budget (the time since the first attempt) would
+ * be exceeded.
+ *
+ * Only idempotent requests are retried: GET, PUT and DELETE, and POSTs
+ * sent with an idempotency key.
+ */
+public class RetryPolicy {
+    private static ScheduledExecutorService scheduler;
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long budget;
+
+    /**
+     * Creates a RetryPolicy.
+     *
+     * @param maxAttempts The maximum number of attempts, including the first.
+     * @param baseDelay The shortest delay between attempts, in milliseconds.
+     * @param maxDelay The longest delay between attempts, in milliseconds.
+     * @param budget The maximum time in milliseconds from the first attempt
+     *              after which a request is no longer retried.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long budget) {
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.baseDelay = Math.max(baseDelay, 1);
+        this.maxDelay = Math.max(maxDelay, this.baseDelay);
+        this.budget = budget;
+    }
+
+    /**
+     * Creates a RetryPolicy with up to 4 attempts, delays between 50ms
+     * and 2 seconds and a 10 second budget.
+     */
+    public RetryPolicy() {
+        this(4, 50, 2000, 10 * 1000);
+    }
+
+    /**
+     * Tracks the attempts made for one request.
+     */
+    public class Attempts {
+        private int attempts;
+        private long delay;
+        private final long start;
+
+        Attempts() {
+            this.attempts = 1;
+            this.delay = baseDelay;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Returns how many milliseconds to wait before retrying after a
+         * failure, or -1 if the request should not be retried.
+         *
+         * @param failure The exception the attempt failed with.
+         */
+        public long retryDelay(Exception failure) {
+            if (attempts >= maxAttempts || !isRetryable(failure)) {
+                return -1;
+            }
+
+            //Decorrelated jitter: a random delay between the base delay
+            //and three times the previous delay
+            long upper = Math.min(maxDelay, delay * 3);
+            delay = (upper > baseDelay)
+                ? ThreadLocalRandom.current().nextLong(baseDelay, upper + 1)
+                : baseDelay;
+
+            //Wait at least as long as the server asked to
+            long wait = Math.max(delay, retryAfter(failure));
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsed + wait > budget) {
+                return -1;
+            }
+
+            attempts++;
+            return wait;
+        }
+    }
+
+    /**
+     * Starts tracking the attempts for a new request.
+     */
+    public Attempts start() {
+        return new Attempts();
+    }
+
+    /**
+     * Whether a failure is transient and the request may succeed
+     * if it is retried.
+     *
+     * @param failure The exception the request failed with.
+     */
+    public boolean isRetryable(Exception failure) {
+        if (failure instanceof CloudException) {
+            CloudException e = (CloudException) failure;
+            int status = e.getStatusCode();
+            return e.getCode() == 999 || e.getCode() == CloudResponse.TRUNCATED_CODE
+                || status == 429 || status >= 500;
+        }
+
+        Throwable cause = (failure instanceof IOException) ? failure : failure.getCause();
+        return (cause instanceof IOException)
+            && !(cause instanceof UnknownHostException)
+            && !(cause instanceof SSLException);
+    }
+
+    /**
+     * Returns the delay in milliseconds a 429 or 503 response asked for
+     * in its Retry-After header, or -1 if there is none.
+     */
+    private static long retryAfter(Exception failure) {
+        if (failure instanceof CloudException) {
+            CloudException e = (CloudException) failure;
+            if (e.getStatusCode() == 429 || e.getStatusCode() == 503) {
+                return e.getRetryAfter();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs a task after a delay on a shared daemon thread.
+     */
+    static synchronized void schedule(Runnable task, long delay) {
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "weebly-cloud-retry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            scheduler = executor;
+        }
+        scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+}
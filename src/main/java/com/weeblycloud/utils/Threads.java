@@ -0,0 +1,35 @@
+package com.weeblycloud.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the threads bulk calls and blocking interceptors run on. On
+ * Java 21 and later this class is replaced by a version that runs each
+ * call on a virtual thread.
+ */
+final class Threads {
+    private Threads() {}
+
+    /**
+     * Whether calls run on virtual threads. A method rather than a
+     * constant, so that it is not inlined into the classes using it.
+     */
+    static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Returns an executor with up to parallelism daemon threads.
+     *
+     * @param parallelism The number of calls that run at once.
+     * @param name The name of the threads.
+     */
+    static ExecutorService newExecutor(int parallelism, String name) {
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.weeblycloud.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the threads bulk calls and blocking interceptors run on. This
+ * is the Java 21 version, which runs each call on its own virtual thread.
+ */
+final class Threads {
+    private Threads() {}
+
+    /**
+     * Whether calls run on virtual threads. A method rather than a
+     * constant, so that it is not inlined into the classes using it.
+     */
+    static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread for each task.
+     * Callers bound the tasks in flight themselves if they need to, so
+     * parallelism is unused.
+     *
+     * @param parallelism The number of calls that run at once.
+     * @param name The prefix of the names of the threads.
+     */
+    static ExecutorService newExecutor(int parallelism, String name) {
+        return Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+}
@@ -0,0 +1,563 @@
+package com.weeblycloud.fake;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.weeblycloud.utils.RequestSigner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process fake of the Weebly Cloud API, for load and latency
+ * testing the client without reaching the real API.
+ *
+ * The server implements the account, user, site, page, blog, blog post,
+ * form, form entry, group, member and plan endpoints against an in-memory
+ * store. Every collection is filled with generated items the first time
+ * it is used, and list endpoints are paginated with the X-Resultset-Total,
+ * X-Resultset-Limit and X-Resultset-Page headers. Single items are sent
+ * with an ETag, and a GET with a matching If-None-Match gets 304 Not
+ * Modified. Requests must carry the API key and a valid
+ * X-Signed-Request-Hash, or they fail with 401.
+ *
+ * Latency, server errors and 429 responses can be injected to see how the
+ * client behaves under a slow or overloaded API.
+ *
+ * The JDK's HTTP server sends headers and body in separate writes, which
+ * stall on delayed ACKs and add ~40ms to every response unless the
+ * sun.net.httpserver.nodelay system property is set to true before the
+ * first server is started.
+ */
+public class FakeCloudServer implements Closeable {
+    /**
+     * Results per page when a list request does not set a limit.
+     */
+    public static final int DEFAULT_LIMIT = 25;
+
+    /**
+     * Actions that are POSTed to a user or site and only acknowledged.
+     */
+    private static final Set<String> ACTIONS = new HashSet<String>(Arrays.asList(
+        "publish", "unpublish", "enable", "disable", "setPublishCredentials", "restore"));
+
+    /**
+     * Name of the id property of each collection.
+     */
+    private static final Map<String, String> ID_KEYS = new HashMap<String, String>();
+
+    static {
+        ID_KEYS.put("user", "user_id");
+        ID_KEYS.put("site", "site_id");
+        ID_KEYS.put("page", "page_id");
+        ID_KEYS.put("blog", "blog_id");
+        ID_KEYS.put("post", "post_id");
+        ID_KEYS.put("form", "form_id");
+        ID_KEYS.put("entry", "form_entry_id");
+        ID_KEYS.put("group", "group_id");
+        ID_KEYS.put("member", "member_id");
+        ID_KEYS.put("plan", "plan_id");
+        ID_KEYS.put("theme", "theme_id");
+    }
+
+    private final String apiKey;
+    private final RequestSigner signer;
+    private final JsonParser parser = new JsonParser();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Items of each collection by id, keyed by the collection's url.
+     */
+    private final Map<String, LinkedHashMap<String, JsonObject>> store =
+        new HashMap<String, LinkedHashMap<String, JsonObject>>();
+
+    private int nextId = 1000000;
+
+    private volatile int seedSize = 50;
+    private volatile int maxLimit = Integer.MAX_VALUE;
+    private volatile long minLatency;
+    private volatile long maxLatency;
+    private volatile double errorRate;
+    private volatile double throttleRate;
+    private volatile int retryAfter = 1;
+    private volatile boolean verifySignatures = true;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final Set<InetSocketAddress> connections =
+        ConcurrentHashMap.<InetSocketAddress>newKeySet();
+    private volatile Map<String, List<String>> lastHeaders = Collections.emptyMap();
+
+    /**
+     * Creates a FakeCloudServer that accepts requests signed with
+     * the given keys.
+     *
+     * @param apiKey The API key clients must send.
+     * @param apiSecret The API secret clients sign requests with.
+     */
+    public FakeCloudServer(String apiKey, String apiSecret) {
+        this.apiKey = apiKey;
+        this.signer = new RequestSigner(apiSecret);
+    }
+
+    /**
+     * Starts the server on a free port of the loopback interface.
+     */
+    public FakeCloudServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fake-cloud-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    /**
+     * The API domain to build a CloudClient with, using the http scheme.
+     */
+    public String getBaseUrl() {
+        return "127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Sets the number of items generated for each collection.
+     *
+     * @param seedSize The number of items.
+     */
+    public void setSeedSize(int seedSize) {
+        this.seedSize = seedSize;
+    }
+
+    /**
+     * Sets the largest page size list requests are served with. Requests
+     * for larger pages get pages of this size, as the API does.
+     *
+     * @param maxLimit The largest number of items per page.
+     */
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = Math.max(maxLimit, 1);
+    }
+
+    /**
+     * Delays every response by a random time between min and max.
+     *
+     * @param min The shortest delay in milliseconds.
+     * @param max The longest delay in milliseconds.
+     */
+    public void setLatency(long min, long max) {
+        this.minLatency = min;
+        this.maxLatency = Math.max(max, min);
+    }
+
+    /**
+     * Sets the fraction of requests that fail with 500.
+     *
+     * @param errorRate A fraction between 0 and 1.
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Sets the fraction of requests that are rejected with 429.
+     *
+     * @param throttleRate A fraction between 0 and 1.
+     * @param retryAfter Seconds sent in the Retry-After header.
+     */
+    public void setThrottleRate(double throttleRate, int retryAfter) {
+        this.throttleRate = throttleRate;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Sets whether requests with a missing or wrong signature are
+     * rejected. Enabled by default.
+     *
+     * @param verifySignatures Whether to check signatures.
+     */
+    public void setVerifySignatures(boolean verifySignatures) {
+        this.verifySignatures = verifySignatures;
+    }
+
+    /**
+     * The number of requests received.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * The number of requests failed with an injected 500.
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * The number of requests rejected with an injected 429.
+     */
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    /**
+     * The number of requests rejected for a bad key or signature.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * The number of connections requests have been received on.
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * The number of GETs answered with 304 Not Modified.
+     */
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    /**
+     * The headers of the last request received, by lower-case name.
+     */
+    public Map<String, List<String>> getLastRequestHeaders() {
+        return lastHeaders;
+    }
+
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        connections.add(exchange.getRemoteAddress());
+        Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            headers.put(header.getKey().toLowerCase(), header.getValue());
+        }
+        lastHeaders = headers;
+        try {
+            String method = exchange.getRequestMethod();
+            String url = exchange.getRequestURI().getRawPath().replaceAll("^/+|/+$", "");
+            byte[] content = readAll(exchange.getRequestBody());
+
+            if (verifySignatures && !isSigned(exchange, method, url, content)) {
+                rejected.incrementAndGet();
+                sendError(exchange, 401, 401, "Invalid signature");
+                return;
+            }
+
+            delay();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (throttleRate > 0 && random.nextDouble() < throttleRate) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfter));
+                sendError(exchange, 429, 429, "Too many requests");
+                return;
+            } else if (errorRate > 0 && random.nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                sendError(exchange, 500, 500, "Internal server error");
+                return;
+            }
+
+            JsonObject data = (content.length > 0)
+                ? parser.parse(new String(content, StandardCharsets.UTF_8)).getAsJsonObject()
+                : new JsonObject();
+            route(exchange, method, url, query(exchange.getRequestURI().getRawQuery()), data);
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, 500, String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean isSigned(HttpExchange exchange, String method, String url,
+            byte[] content) {
+        String key = exchange.getRequestHeaders().getFirst("X-Public-Key");
+        String hash = exchange.getRequestHeaders().getFirst("X-Signed-Request-Hash");
+        return apiKey.equals(key) && hash != null
+            && hash.equals(signer.sign(method, url, content));
+    }
+
+    private void route(HttpExchange exchange, String method, String url,
+            Map<String, String> query, JsonObject data) throws IOException {
+        String[] segments = url.split("/");
+        String last = segments[segments.length - 1];
+        String parent = url.substring(0, Math.max(url.lastIndexOf('/'), 0));
+
+        if (url.equals("account")) {
+            JsonObject account = new JsonObject();
+            account.addProperty("account_id", "1");
+            account.addProperty("name", "Fake account");
+            send(exchange, 200, wrap("account", account));
+        } else if (ACTIONS.contains(last) && method.equals("POST")) {
+            send(exchange, 200, new JsonObject());
+        } else if (last.equals("loginLink")) {
+            JsonObject link = new JsonObject();
+            link.addProperty("link", "https://www.weebly.com/login?token=" + nextId());
+            send(exchange, 200, link);
+        } else if (last.equals("plan") && segments.length > 1) {
+            //A site's plan, returned in the same format as the plan list
+            JsonObject plans = new JsonObject();
+            JsonObject plan = collection("plan").values().iterator().next();
+            plans.add(plan.get("plan_id").getAsString(), plan);
+            send(exchange, 200, wrap("plans", plans));
+        } else if (last.equals("theme") && method.equals("GET")) {
+            JsonArray themes = new JsonArray();
+            for (JsonObject theme : collection(url).values()) {
+                themes.add(theme);
+            }
+            send(exchange, 200, wrap("data", themes));
+        } else if (last.equals("theme")) {
+            send(exchange, 200, new JsonObject());
+        } else if (ID_KEYS.containsKey(last)) {
+            if (method.equals("GET")) {
+                list(exchange, url, last, query);
+            } else if (method.equals("POST")) {
+                send(exchange, 200, itemResponse(last, create(url, last, data)));
+            } else {
+                sendError(exchange, 405, 405, "Method not allowed");
+            }
+        } else if (segments.length > 1 && ID_KEYS.containsKey(segments[segments.length - 2])) {
+            item(exchange, method, parent, segments[segments.length - 2], last, data);
+        } else {
+            sendError(exchange, 404, 404, "Not found");
+        }
+    }
+
+    private void list(HttpExchange exchange, String url, String type,
+            Map<String, String> query) throws IOException {
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_LIMIT;
+        int page = query.containsKey("page") ? Integer.parseInt(query.get("page")) : 1;
+        limit = Math.min(Math.max(limit, 1), maxLimit);
+        page = Math.max(page, 1);
+
+        ArrayList<JsonObject> items;
+        synchronized (this) {
+            items = new ArrayList<JsonObject>(collection(url).values());
+        }
+        int from = Math.min((page - 1) * limit, items.size());
+        int to = Math.min(from + limit, items.size());
+
+        JsonElement body;
+        if (type.equals("plan")) {
+            JsonObject plans = new JsonObject();
+            for (JsonObject plan : items.subList(from, to)) {
+                plans.add(plan.get("plan_id").getAsString(), plan);
+            }
+            body = wrap("plans", plans);
+        } else {
+            JsonArray array = new JsonArray();
+            for (JsonObject item : items.subList(from, to)) {
+                array.add(item);
+            }
+            body = type.equals("site") ? wrap("sites", array) : array;
+        }
+
+        exchange.getResponseHeaders().add("X-Resultset-Total", String.valueOf(items.size()));
+        exchange.getResponseHeaders().add("X-Resultset-Limit", String.valueOf(limit));
+        exchange.getResponseHeaders().add("X-Resultset-Page", String.valueOf(page));
+        send(exchange, 200, body);
+    }
+
+    private void item(HttpExchange exchange, String method, String collectionUrl,
+            String type, String id, JsonObject data) throws IOException {
+        JsonObject item;
+        synchronized (this) {
+            LinkedHashMap<String, JsonObject> items = collection(collectionUrl);
+            item = items.get(id);
+            if (item != null && method.equals("DELETE")) {
+                items.remove(id);
+            } else if (item != null && !method.equals("GET")) {
+                item = merge(merge(new JsonObject(), item), data);
+                items.put(id, item);
+            }
+        }
+
+        if (item == null) {
+            sendError(exchange, 404, 404, "Not found");
+        } else if (method.equals("DELETE")) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            String etag = "\"" + Integer.toHexString(item.toString().hashCode()) + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (method.equals("GET")
+                    && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                send(exchange, 200, itemResponse(type, item));
+            }
+        }
+    }
+
+    private synchronized JsonObject create(String url, String type, JsonObject data) {
+        String id = String.valueOf(nextId());
+        JsonObject item = generate(type, id);
+        merge(item, data);
+        collection(url).put(id, item);
+        return item;
+    }
+
+    /**
+     * Returns the items of a collection, generating them if this is
+     * the first time the collection is used.
+     */
+    private synchronized LinkedHashMap<String, JsonObject> collection(String url) {
+        LinkedHashMap<String, JsonObject> items = store.get(url);
+        if (items == null) {
+            String type = url.substring(url.lastIndexOf('/') + 1);
+            items = new LinkedHashMap<String, JsonObject>();
+            for (int i = 1; i <= seedSize; i++) {
+                items.put(String.valueOf(i), generate(type, String.valueOf(i)));
+            }
+            store.put(url, items);
+        }
+        return items;
+    }
+
+    private synchronized int nextId() {
+        return nextId++;
+    }
+
+    private static JsonObject generate(String type, String id) {
+        JsonObject item = new JsonObject();
+        item.addProperty(ID_KEYS.get(type), id);
+        if (type.equals("site")) {
+            item.addProperty("site_title", "Site " + id);
+            item.addProperty("domain", "site" + id + ".weebly.com");
+            item.addProperty("language", "en");
+            item.addProperty("is_published", true);
+        } else if (type.equals("page") || type.equals("post")) {
+            item.addProperty("title", "Title " + id);
+            item.addProperty("url", "/item-" + id + ".html");
+            item.addProperty("hidden", false);
+        } else if (type.equals("entry")) {
+            JsonObject fields = new JsonObject();
+            fields.addProperty("name", "Name " + id);
+            fields.addProperty("email", "person" + id + "@example.com");
+            item.add("data", fields);
+        } else if (type.equals("user") || type.equals("member")) {
+            item.addProperty("name", "Person " + id);
+            item.addProperty("email", "person" + id + "@example.com");
+        } else {
+            item.addProperty("name", "Name " + id);
+        }
+        item.addProperty("created_date", "2016-07-10T12:00:00+00:00");
+        return item;
+    }
+
+    private static JsonObject merge(JsonObject item, JsonObject data) {
+        for (Map.Entry<String, JsonElement> entry : data.entrySet()) {
+            item.add(entry.getKey(), entry.getValue());
+        }
+        return item;
+    }
+
+    /**
+     * Users and sites are wrapped in an object, other resources are not.
+     */
+    private static JsonElement itemResponse(String type, JsonObject item) {
+        return (type.equals("user") || type.equals("site")) ? wrap(type, item) : item;
+    }
+
+    private static JsonObject wrap(String name, JsonElement value) {
+        JsonObject wrapper = new JsonObject();
+        wrapper.add(name, value);
+        return wrapper;
+    }
+
+    private void delay() {
+        long max = maxLatency;
+        if (max <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(minLatency, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, int code,
+            String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        send(exchange, status, wrap("error", error));
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonElement body)
+            throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) throws IOException {
+        HashMap<String, String> query = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+                    URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
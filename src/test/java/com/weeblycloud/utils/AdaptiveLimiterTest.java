@@ -0,0 +1,131 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveLimiterTest {
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void growsByOnePerWindowOfSuccesses() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 4, 100);
+
+        //Each success adds 1/limit, so a window of limit
+        //successes adds about one
+        for (int i = 0; i < 4; i++) {
+            limiter.onResponse(200, -1, LATENCY);
+        }
+        assertEquals(4, limiter.getLimit());
+        limiter.onResponse(200, -1, LATENCY);
+        assertEquals(5, limiter.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            limiter.onResponse(200, -1, LATENCY);
+        }
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    public void stopsGrowingAtMaxConcurrency() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 2, 3);
+        for (int i = 0; i < 100; i++) {
+            limiter.onResponse(200, -1, LATENCY);
+        }
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void halvesOnThrottling() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 16, 100);
+        Thread.sleep(1);
+
+        limiter.onResponse(429, 0, 1);
+        assertEquals(8, limiter.getLimit());
+
+        Thread.sleep(1);
+        limiter.onResponse(503, 0, 1);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void halvesOncePerBurstOfThrottling() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 16, 100);
+        Thread.sleep(20);
+
+        //Responses to requests that were in flight together count once
+        for (int i = 0; i < 5; i++) {
+            limiter.onResponse(429, 0, LATENCY);
+        }
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    public void halvesWhenLatencyRises() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 16, 100);
+        limiter.onResponse(200, -1, 1000);
+        int limit = limiter.getLimit();
+        Thread.sleep(1);
+
+        limiter.onResponse(200, -1, (long) (1000 * AdaptiveLimiter.LATENCY_TOLERANCE * 10));
+        assertEquals(limit / 2, limiter.getLimit());
+    }
+
+    @Test
+    public void keepsLatencyBaselinePerEndpoint() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 16, 100);
+        long slow = (long) (1000 * AdaptiveLimiter.LATENCY_TOLERANCE * 10);
+        limiter.onResponse("GET user/{id}", 200, -1, 1000);
+        limiter.onResponse("GET user/{id}/site", 200, -1, slow);
+        int limit = limiter.getLimit();
+        Thread.sleep(1);
+
+        //A slow endpoint is compared with itself, not the fast one
+        limiter.onResponse("GET user/{id}/site", 200, -1, slow);
+        assertTrue(limiter.getLimit() >= limit);
+
+        limiter.onResponse("GET user/{id}", 200, -1, slow);
+        assertEquals(limit / 2, limiter.getLimit());
+    }
+
+    @Test
+    public void neverDropsBelowOne() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 1, 100);
+        Thread.sleep(1);
+        limiter.onResponse(429, 0, 1);
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void holdsRequestsOverTheLimit() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 2, 2);
+        limiter.acquire();
+        limiter.acquire();
+        CompletableFuture<Void> third = limiter.acquireAsync();
+
+        assertEquals(2, limiter.getInFlight());
+        assertFalse(third.isDone());
+
+        limiter.release();
+        third.get(1, TimeUnit.SECONDS);
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void pausesForRetryAfter() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(0, 1, 4, 4);
+        limiter.onResponse(429, 200, 1);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("waited " + waited + "ms", waited >= 150);
+        limiter.release();
+    }
+}
@@ -0,0 +1,100 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class BulkTest {
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.start();
+        client = new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .setMaxConnections(1, 1)
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void returnsResultsInOrder() throws Exception {
+        List<String> urls = Arrays.asList("user/3", "user/1", "user/2");
+
+        List<String> results = Bulk.map(urls, url -> client.get(url).url, 10, TimeUnit.SECONDS);
+
+        assertEquals(urls, results);
+    }
+
+    @Test
+    public void abortsRequestsAtDeadline() throws Exception {
+        server.setLatency(2000, 2000);
+        long start = System.nanoTime();
+
+        try {
+            Bulk.map(Arrays.asList("user/1", "user/2"), url -> client.get(url),
+                200, TimeUnit.MILLISECONDS);
+            fail("Expected the deadline to pass");
+        } catch (CloudException e) {
+            assertEquals(Bulk.DEADLINE_CODE, e.getCode());
+        }
+
+        //The only pooled connection was freed rather than left blocked
+        //reading the slow response
+        server.setLatency(0, 0);
+        client.get("user/1");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("took " + elapsed + "ms", elapsed < 1500);
+    }
+
+    @Test
+    public void abortsAsyncRequestsAtDeadline() throws Exception {
+        server.setLatency(2000, 2000);
+        CompletableFuture<CloudResponse> request = new CompletableFuture<CloudResponse>();
+
+        try {
+            Bulk.map(Arrays.asList("user/1"), url -> {
+                client.getAsync(url).whenComplete((res, e) -> {
+                    if (e != null) {
+                        request.completeExceptionally(e);
+                    } else {
+                        request.complete(res);
+                    }
+                });
+                return request.join();
+            }, 200, TimeUnit.MILLISECONDS);
+            fail("Expected the deadline to pass");
+        } catch (CloudException e) {
+            assertEquals(Bulk.DEADLINE_CODE, e.getCode());
+        }
+
+        //The request itself fails at the deadline rather than waiting
+        //for the slow response
+        try {
+            request.get(1, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (ExecutionException e) {
+            assertEquals(Bulk.DEADLINE_CODE, ((CloudException) e.getCause()).getCode());
+        }
+    }
+}
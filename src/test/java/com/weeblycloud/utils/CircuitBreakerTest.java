@@ -0,0 +1,112 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+    private static final CloudException SERVER_ERROR =
+        new CloudException("Error performing request", 500).setStatusCode(500);
+
+    private static CircuitBreaker open(CircuitBreaker breaker) {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.record(SERVER_ERROR);
+        }
+        return breaker;
+    }
+
+    private static void waitOpenTime() throws InterruptedException {
+        Thread.sleep(30);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 60 * 1000);
+        breaker.record(SERVER_ERROR);
+        breaker.record(SERVER_ERROR);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(SERVER_ERROR);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void apiErrorsCountAsSuccesses() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 60 * 1000);
+        breaker.record(SERVER_ERROR);
+        breaker.record(new CloudException("Not found", 404).setStatusCode(404));
+        breaker.record(SERVER_ERROR);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void connectionErrorsCountAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60 * 1000);
+        breaker.record(new RuntimeException(new IOException("Connection reset")));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void letsOneProbeThroughAfterOpenTime() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(3, 20));
+        waitOpenTime();
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void closesWhenProbeSucceeds() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(3, 20));
+        waitOpenTime();
+
+        assertTrue(breaker.allowRequest());
+        breaker.record(null);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void reopensWhenProbeFails() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(3, 20));
+        waitOpenTime();
+
+        assertTrue(breaker.allowRequest());
+        breaker.record(SERVER_ERROR);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void interruptedProbeDoesNotClose() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(3, 20));
+        waitOpenTime();
+
+        assertTrue(breaker.allowRequest());
+        breaker.record(new RuntimeException(new InterruptedException()));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        //The probe slot is free for another request
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void cancelledProbeDoesNotClose() throws Exception {
+        CircuitBreaker breaker = open(new CircuitBreaker(3, 20));
+        waitOpenTime();
+
+        assertTrue(breaker.allowRequest());
+        breaker.record(new CancellationException());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+}
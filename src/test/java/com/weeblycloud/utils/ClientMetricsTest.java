@@ -0,0 +1,108 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class ClientMetricsTest {
+    private static final long LATENCY = 50;
+
+    private FakeCloudServer server;
+    private CloudClient client;
+    private ClientMetrics metrics;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.setSeedSize(10);
+        server.start();
+        metrics = new ClientMetrics();
+        client = new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .setMetrics(metrics)
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        metrics.unregisterMBean();
+        client.close();
+        server.close();
+    }
+
+    private void makeRequests() throws Exception {
+        server.setLatency(LATENCY, LATENCY);
+        for (int id = 1; id <= 5; id++) {
+            client.get("user/" + id);
+        }
+        client.getAsync("user/6").get(10, TimeUnit.SECONDS);
+        try {
+            client.get("user/999");
+            fail("Expected a missing user to fail");
+        } catch (CloudException e) {
+            assertEquals(404, e.getCode());
+        }
+    }
+
+    @Test
+    public void recordsRequestsPerEndpoint() throws Exception {
+        makeRequests();
+
+        EndpointStats stats = metrics.getEndpoints().get("GET user/{id}");
+        assertEquals(7, stats.getRequestCount());
+        assertEquals(1, stats.getErrorCount());
+        assertEquals(Collections.singletonMap(404, 1L), stats.getErrorsByCode());
+        assertTrue(stats.getBytesReceived() > 0);
+        assertEquals(1, metrics.getEndpoints().size());
+    }
+
+    @Test
+    public void recordsLatencyHistogram() throws Exception {
+        makeRequests();
+
+        //Latencies are in microseconds
+        EndpointStats stats = metrics.getEndpoints().get("GET user/{id}");
+        long latency = TimeUnit.MILLISECONDS.toMicros(LATENCY);
+        assertTrue(stats.toString(), stats.getP50Latency() >= latency * 0.9);
+        assertTrue(stats.toString(), stats.getMeanLatency() >= latency * 0.9);
+        assertTrue(stats.toString(), stats.getP50Latency() <= stats.getP90Latency());
+        assertTrue(stats.toString(), stats.getP90Latency() <= stats.getP99Latency());
+        assertTrue(stats.toString(), stats.getP99Latency() <= stats.getMaxLatency());
+    }
+
+    @Test
+    public void exportsOverJmx() throws Exception {
+        makeRequests();
+        metrics.registerMBean("test");
+
+        MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.weeblycloud:type=ClientMetrics,name="
+            + ObjectName.quote("test"));
+        assertEquals(7L, mbeans.getAttribute(name, "RequestCount"));
+        assertEquals(1L, mbeans.getAttribute(name, "ErrorCount"));
+        TabularData endpoints = (TabularData) mbeans.getAttribute(name, "Endpoints");
+        assertEquals(1, endpoints.size());
+
+        mbeans.invoke(name, "reset", null, null);
+        assertEquals(0L, mbeans.getAttribute(name, "RequestCount"));
+
+        metrics.unregisterMBean();
+        assertFalse(mbeans.isRegistered(name));
+    }
+}
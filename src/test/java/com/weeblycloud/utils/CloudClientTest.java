@@ -0,0 +1,391 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.weeblycloud.User;
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class CloudClientTest {
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    private CloudClient.Builder builder() {
+        return new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http");
+    }
+
+    private static HashMap<String, Object> data(String key, Object value) {
+        HashMap<String, Object> data = new HashMap<String, Object>();
+        data.put(key, value);
+        return data;
+    }
+
+    private static String email(CloudResponse res) {
+        return res.body.getAsJsonObject().getAsJsonObject("user").get("email").getAsString();
+    }
+
+    private CloudException getFails(String url) {
+        try {
+            client.get(url);
+        } catch (CloudException e) {
+            return e;
+        }
+        fail("Expected " + url + " to fail");
+        return null;
+    }
+
+    @Test
+    public void retriesServerErrorsUpToMaxAttempts() throws Exception {
+        server.setErrorRate(1);
+        client = builder().setRetryPolicy(new RetryPolicy(3, 1, 5, 10 * 1000)).build();
+
+        assertEquals(500, getFails("user/1").getStatusCode());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void retriesAsyncRequests() throws Exception {
+        server.setErrorRate(1);
+        client = builder().setRetryPolicy(new RetryPolicy(3, 1, 5, 10 * 1000)).build();
+
+        try {
+            client.getAsync("user/1").get(10, TimeUnit.SECONDS);
+            fail("Expected user/1 to fail");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertEquals(500, ((CloudException) e.getCause()).getStatusCode());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void doesNotRetryWrites() throws Exception {
+        server.setErrorRate(1);
+        client = builder().setRetryPolicy(new RetryPolicy(3, 1, 5, 10 * 1000)).build();
+
+        try {
+            client.makeRequest("user/1/site", "POST", data("domain", "example.com"));
+            fail("Expected the POST to fail");
+        } catch (CloudException e) {
+            assertEquals(500, e.getStatusCode());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void waitsForRetryAfter() throws Exception {
+        server.setThrottleRate(1, 1);
+        client = builder().setRetryPolicy(new RetryPolicy(2, 1, 5, 10 * 1000)).build();
+
+        long start = System.nanoTime();
+        CloudException e = getFails("user/1");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(429, e.getStatusCode());
+        assertEquals(1000, e.getRetryAfter());
+        assertEquals(2, server.getRequestCount());
+        assertTrue("retried after " + elapsed + "ms", elapsed >= 1000);
+    }
+
+    @Test
+    public void openBreakerRejectsWithoutSending() throws Exception {
+        server.setErrorRate(1);
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(2, 60 * 1000);
+        client = builder().setCircuitBreakers(breakers).build();
+
+        getFails("user/1");
+        getFails("user/2");
+        assertEquals(CircuitBreaker.State.OPEN, breakers.get("user/3").getState());
+
+        assertEquals(CircuitBreaker.OPEN_CODE, getFails("user/3").getCode());
+        assertEquals(2, server.getRequestCount());
+
+        //Other endpoints are not affected
+        server.setErrorRate(0);
+        client.get("user/1/site");
+    }
+
+    @Test
+    public void cachesUntilWrite() throws Exception {
+        LruResponseCache cache = new LruResponseCache(100);
+        cache.setTtl("user/{id}", 60 * 1000);
+        client = builder().setCache(cache).build();
+
+        CloudResponse first = client.get("user/1");
+        first.body.getAsJsonObject().getAsJsonObject("user")
+            .addProperty("email", "changed@example.com");
+        CloudResponse hit = client.get("user/1");
+        assertEquals(1, server.getRequestCount());
+        assertEquals("person1@example.com", email(hit));
+
+        client.makeRequest("user/1", "PATCH", data("email", "new@example.com"));
+        CloudResponse after = client.get("user/1");
+        assertEquals(3, server.getRequestCount());
+        assertEquals("new@example.com", email(after));
+    }
+
+    @Test
+    public void doesNotCacheGetStartedBeforeWrite() throws Exception {
+        server.setLatency(200, 200);
+        LruResponseCache cache = new LruResponseCache(100);
+        cache.setTtl("user/{id}", 60 * 1000);
+        client = builder().setCache(cache).build();
+
+        CompletableFuture<CloudResponse> before = client.getAsync("user/1");
+        client.makeRequest("user/1", "PATCH", data("email", "new@example.com"));
+        before.get(10, TimeUnit.SECONDS);
+
+        CloudResponse after = client.get("user/1");
+        assertEquals(3, server.getRequestCount());
+        assertEquals("new@example.com", email(after));
+    }
+
+    @Test
+    public void coalescesIdenticalGetsWhenEnabled() throws Exception {
+        server.setLatency(200, 200);
+        client = builder().setCoalesceRequests(true).build();
+
+        CompletableFuture<CloudResponse> a = client.getAsync("user/1");
+        CompletableFuture<CloudResponse> b = client.getAsync("user/1");
+        CloudResponse resA = a.get(10, TimeUnit.SECONDS);
+        CloudResponse resB = b.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(resA.body, resB.body);
+        assertNotSame(resA.body, resB.body);
+    }
+
+    @Test
+    public void doesNotCoalesceByDefault() throws Exception {
+        server.setLatency(200, 200);
+        client = builder().build();
+
+        CompletableFuture<CloudResponse> a = client.getAsync("user/1");
+        CompletableFuture<CloudResponse> b = client.getAsync("user/1");
+        a.get(10, TimeUnit.SECONDS);
+        b.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void replacingDefaultClientLeavesItOpen() throws Exception {
+        CloudClient previous = CloudClient.getClient();
+        client = builder().build();
+        CloudClient other = builder().build();
+        try {
+            CloudClient.setClient(client);
+            CloudClient.setClient(other);
+            client.get("user/1");
+        } finally {
+            CloudClient.setClient(previous);
+            other.close();
+        }
+    }
+
+    private void awaitRequests(long count) throws InterruptedException {
+        for (int i = 0; i < 500 && server.getRequestCount() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.getRequestCount());
+    }
+
+    @Test
+    public void revalidatesThroughInterceptorsWithHeaders() throws Exception {
+        LruResponseCache cache = new LruResponseCache(100);
+        cache.setTtl("user/{id}", 20, 60 * 1000);
+        client = builder().setCache(cache)
+            .addInterceptor(chain -> chain.proceed(chain.request().withHeader("X-Tenant", "a")))
+            .build();
+        CloudRequest request = new CloudRequest("user/1", "GET", new HashMap<String, Object>())
+            .withHeader("X-Trace", "1");
+
+        client.makeRequest(request, null);
+        Thread.sleep(40);
+        assertEquals(1, server.getRequestCount());
+
+        //Served stale, and revalidated in the background
+        client.makeRequest(request, null);
+        awaitRequests(2);
+        assertEquals("a", server.getLastRequestHeaders().get("x-tenant").get(0));
+        assertEquals("1", server.getLastRequestHeaders().get("x-trace").get(0));
+        assertEquals(0, server.getRejectedCount());
+    }
+
+    @Test
+    public void cachesSeparatelyByHeaders() throws Exception {
+        LruResponseCache cache = new LruResponseCache(100);
+        cache.setTtl("user/{id}", 60 * 1000);
+        client = builder().setCache(cache).build();
+        CloudRequest request = new CloudRequest("user/1", "GET", new HashMap<String, Object>());
+
+        client.makeRequest(request.withHeader("X-Tenant", "a"), null);
+        client.makeRequest(request.withHeader("X-Tenant", "b"), null);
+        client.makeRequest(request.withHeader("X-Tenant", "a"), null);
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void closedClientFailsAsyncRequests() throws Exception {
+        client = builder().build();
+        client.close();
+        client.close();
+
+        try {
+            client.getAsync("user/1").get(10, TimeUnit.SECONDS);
+            fail("Expected the closed client to fail");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void closeStopsAsyncClient() throws Exception {
+        client = builder().build();
+        client.getAsync("user/1").get(10, TimeUnit.SECONDS);
+        client.close();
+
+        try {
+            client.getAsync("user/1").get(10, TimeUnit.SECONDS);
+            fail("Expected the closed client to fail");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            client.get("user/1");
+            fail("Expected the closed client to fail");
+        } catch (IllegalStateException e) {
+            assertTrue(client.isClosed());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void failedPermitFailsAsyncRequest() throws Exception {
+        client = builder().build();
+        client.setLimiter(new AdaptiveLimiter(0, 1, 1, 1) {
+            @Override
+            public CompletableFuture<Void> acquireAsync() {
+                CompletableFuture<Void> permit = new CompletableFuture<Void>();
+                permit.completeExceptionally(new IllegalStateException("no permit"));
+                return permit;
+            }
+        });
+
+        try {
+            client.getAsync("user/1").get(10, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertEquals("no permit", e.getCause().getMessage());
+        }
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void refreshesResourcesWithConditionalGets() throws Exception {
+        client = builder().build();
+        User user = new User(client, "1");
+
+        user.get();
+        assertEquals(1, server.getNotModifiedCount());
+        assertTrue(server.getLastRequestHeaders().containsKey("if-none-match"));
+        assertEquals("person1@example.com", user.getProperty("email").getAsString());
+
+        client.patch("user/1", data("email", "new@example.com"));
+        user.get();
+        assertEquals(1, server.getNotModifiedCount());
+        assertEquals("new@example.com", user.getProperty("email").getAsString());
+    }
+
+    @Test
+    public void clientsKeepTheirOwnKeysAndServers() throws Exception {
+        FakeCloudServer otherServer = new FakeCloudServer("other-key", "other-secret");
+        otherServer.start();
+        client = builder().build();
+        CloudClient other = new CloudClient.Builder("other-key", "other-secret")
+            .setBaseUrl(otherServer.getBaseUrl())
+            .setScheme("http")
+            .build();
+        try {
+            //Each client signs with its own keys, so each server accepts
+            //only the requests of its own client
+            client.patch("user/1", data("email", "one@example.com"));
+            other.patch("user/1", data("email", "other@example.com"));
+            CloudResponse[] responses = {
+                client.get("user/1"), other.getAsync("user/1").get(10, TimeUnit.SECONDS)
+            };
+
+            assertEquals("one@example.com", email(responses[0]));
+            assertEquals("other@example.com", email(responses[1]));
+            assertEquals(2, server.getRequestCount());
+            assertEquals(2, otherServer.getRequestCount());
+            assertEquals(0, server.getRejectedCount() + otherServer.getRejectedCount());
+
+            //Closing one client leaves the other working
+            other.close();
+            client.get("user/2");
+        } finally {
+            other.close();
+            otherServer.close();
+        }
+    }
+
+    @Test
+    public void reusesPooledConnections() throws Exception {
+        client = builder().setMaxConnections(4, 4).build();
+
+        for (int id = 1; id <= 20; id++) {
+            client.get("user/" + (id % 10 + 1));
+        }
+        assertEquals(1, server.getConnectionCount());
+
+        //Concurrent requests share at most the pool's connections
+        server.setLatency(20, 20);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CloudResponse>> responses = new ArrayList<Future<CloudResponse>>();
+            for (int i = 0; i < 40; i++) {
+                responses.add(threads.submit(() -> client.get("user/1")));
+            }
+            for (Future<CloudResponse> response : responses) {
+                response.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdown();
+        }
+        assertTrue("connections: " + server.getConnectionCount(),
+            server.getConnectionCount() <= 4);
+    }
+}
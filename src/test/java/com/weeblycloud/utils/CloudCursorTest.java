@@ -0,0 +1,167 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.weeblycloud.Page;
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class CloudCursorTest {
+    private static final String URL = "user/1/site/2/page";
+    private static final int TOTAL = 103;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.setSeedSize(TOTAL);
+        server.start();
+        client = new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private CloudList<Page> list(int limit) throws CloudException {
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("limit", limit);
+        return new CloudList<Page>(client.get(URL, parameters), new String[] {"1", "2"},
+            (ids, json) -> Page.arrayFromJson(client, ids, json));
+    }
+
+    private static List<Integer> ids(Iterable<Page> pages, int max) throws CloudException {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (Page page : pages) {
+            ids.add(page.getProperty("page_id").getAsInt());
+            if (ids.size() == max) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Test
+    public void resumesAfterLastCompletedPage() throws Exception {
+        File checkpoint = new File(folder.getRoot(), "pages.cursor");
+
+        //Stop partway through the fourth page
+        assertEquals(range(1, 35), ids(list(10).forwardOnly(checkpoint), 35));
+        CloudCursor cursor = CloudCursor.load(checkpoint);
+        assertEquals(3, cursor.getPage());
+        assertEquals(30, cursor.getOffset());
+        assertFalse(cursor.isFinished());
+
+        assertEquals(range(31, TOTAL), ids(list(10).forwardOnly(checkpoint), -1));
+        assertTrue(CloudCursor.load(checkpoint).isFinished());
+    }
+
+    @Test
+    public void resumesWithDifferentPageSize() throws Exception {
+        CloudCursor cursor = new CloudCursor(URL, new HashMap<String, Object>(), 10, 3, false);
+
+        assertEquals(range(31, TOTAL), ids(list(25).forwardOnly(cursor), -1));
+    }
+
+    @Test
+    public void resumesWithinFirstPage() throws Exception {
+        CloudCursor cursor = new CloudCursor(URL, new HashMap<String, Object>(), 10, 1, false);
+
+        assertEquals(range(11, TOTAL), ids(list(25).forwardOnly(cursor), -1));
+    }
+
+    @Test
+    public void finishedCursorHasNoItems() throws Exception {
+        CloudCursor cursor = new CloudCursor(URL, new HashMap<String, Object>(), 10, 11, true);
+        long requests = server.getRequestCount();
+
+        assertTrue(ids(list(10).forwardOnly(cursor), -1).isEmpty());
+        assertEquals(requests + 1, server.getRequestCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCursorForAnotherListing() throws Exception {
+        CloudCursor cursor = new CloudCursor("user/1/site/3/page",
+            new HashMap<String, Object>(), 10, 3, false);
+        list(10).forwardOnly(cursor);
+    }
+
+    @Test
+    public void savesAndLoads() throws Exception {
+        File file = new File(folder.getRoot(), "cursor");
+        assertNull(CloudCursor.load(file));
+
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("limit", 10);
+        parameters.put("page", 4);
+        new CloudCursor(URL, parameters, 10, 3, false).save(file);
+        CloudCursor cursor = CloudCursor.load(file);
+
+        assertEquals(URL, cursor.getUrl());
+        assertEquals(10, cursor.getLimit());
+        assertEquals(3, cursor.getPage());
+        assertFalse(cursor.getParameters().containsKey("page"));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void savesAsJsonKeepingParameterTypes() throws Exception {
+        File file = new File(folder.getRoot(), "cursor");
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("limit", 10);
+        parameters.put("query", "10");
+        parameters.put("archived", true);
+        new CloudCursor(URL, parameters, 10, 3, true).save(file);
+
+        JsonObject json = new JsonParser().parse(
+            new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).getAsJsonObject();
+        assertEquals(URL, json.get("url").getAsString());
+        assertEquals(3, json.get("page").getAsInt());
+
+        CloudCursor cursor = CloudCursor.load(file);
+        assertEquals(parameters, cursor.getParameters());
+        assertTrue(cursor.isFinished());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectsFileThatIsNotACursor() throws Exception {
+        File file = new File(folder.getRoot(), "cursor");
+        Files.write(file.toPath(), "[1, 2]".getBytes(StandardCharsets.UTF_8));
+        CloudCursor.load(file);
+    }
+}
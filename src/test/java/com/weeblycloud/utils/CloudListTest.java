@@ -0,0 +1,199 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.weeblycloud.Page;
+import com.weeblycloud.Site;
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class CloudListTest {
+    private static final int TOTAL = 103;
+
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.setSeedSize(TOTAL);
+        server.start();
+        client = new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private CloudList<Page> pages() throws CloudException {
+        return new Site(client, "1", "2", false, null).listPages();
+    }
+
+    private static List<Integer> ids(Iterable<Page> pages) throws CloudException {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (Page page : pages) {
+            ids.add(page.getProperty("page_id").getAsInt());
+        }
+        return ids;
+    }
+
+    private static List<Integer> allIds() {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int id = 1; id <= TOTAL; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void awaitRequests(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (server.getRequestCount() < count) {
+            assertTrue("Timed out waiting for requests", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void buildsWithoutClient() throws Exception {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(
+            "[{\"page_id\":\"1\"},{\"page_id\":\"2\"}]", "UTF-8"));
+        CloudResponse res = new CloudResponse(response, "user/1/site/2/page",
+            new HashMap<String, Object>());
+
+        CloudClient previous = CloudClient.getClient();
+        CloudClient.setClient(null);
+        try {
+            CloudList<Page> list = new CloudList<Page>(res, new String[] {"1", "2"},
+                Page::arrayFromJson);
+
+            assertEquals(2, list.size());
+            assertEquals("2", list.get(1).getProperty("page_id").getAsString());
+        } finally {
+            CloudClient.setClient(previous);
+        }
+    }
+
+    @Test
+    public void setsPageSizeWhenListed() throws Exception {
+        HashMap<String, Object> params = new HashMap<String, Object>();
+        params.put("limit", 40);
+        CloudList<Page> pages = new Site(client, "1", "2", false, null).listPages(params);
+
+        pages.loadAll(1);
+
+        assertEquals(TOTAL, pages.size());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void largerPageSizeTakesEffectOnNextPage() throws Exception {
+        HashMap<String, Object> params = new HashMap<String, Object>();
+        params.put("limit", 20);
+        CloudList<Page> pages = new Site(client, "1", "2", false, null).listPages(params);
+
+        pages.setPageSize(1000);
+        pages.loadAll(1);
+
+        assertEquals(2, server.getRequestCount());
+        for (int i = 0; i < TOTAL; i++) {
+            assertEquals(i + 1, pages.get(i).getProperty("page_id").getAsInt());
+        }
+    }
+
+    @Test
+    public void getLoadsOnlyThePageHoldingTheItem() throws Exception {
+        CloudList<Page> pages = new Site(client, "1", "2", false, null).listPages();
+
+        assertEquals(91, pages.get(90).getProperty("page_id").getAsInt());
+        assertEquals(2, server.getRequestCount());
+
+        //Served from the page cache
+        assertEquals(76, pages.get(75).getProperty("page_id").getAsInt());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void subListLoadsTheMissingPages() throws Exception {
+        CloudList<Page> pages = new Site(client, "1", "2", false, null).listPages();
+
+        List<Page> window = pages.subList(20, 80);
+
+        assertEquals(60, window.size());
+        for (int i = 0; i < window.size(); i++) {
+            assertEquals(21 + i, window.get(i).getProperty("page_id").getAsInt());
+        }
+        //The first page came with the list, pages 2 to 4 were requested
+        assertEquals(4, server.getRequestCount());
+        assertEquals(FakeCloudServer.DEFAULT_LIMIT, pages.list.size());
+    }
+
+    @Test
+    public void prefetchesPagesInTheBackground() throws Exception {
+        CloudList<Page> pages = pages();
+
+        pages.setPrefetch(2);
+        //Pages 2 and 3 are requested before iteration reaches them
+        awaitRequests(3);
+        Thread.sleep(50);
+        assertEquals(3, server.getRequestCount());
+
+        assertEquals(allIds(), ids(pages));
+        assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    public void loadAllRequestsPagesConcurrently() throws Exception {
+        CloudList<Page> pages = pages();
+        server.setLatency(200, 200);
+        long start = System.nanoTime();
+
+        pages.loadAll(4);
+
+        //The four remaining pages take about one latency, not four
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("took " + elapsed + "ms", elapsed < 600);
+        assertEquals(allIds(), ids(pages.list));
+        assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    public void forwardOnlyDoesNotGrowTheList() throws Exception {
+        CloudList<Page> pages = pages();
+
+        assertEquals(allIds(), ids(pages.forwardOnly()));
+
+        assertEquals(FakeCloudServer.DEFAULT_LIMIT, pages.list.size());
+        assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    public void streamsEveryItemInOrder() throws Exception {
+        CloudList<Page> pages = pages();
+
+        assertEquals(TOTAL, pages.spliterator().estimateSize());
+        List<Page> streamed = new ArrayList<Page>();
+        pages.parallelStream().forEachOrdered(streamed::add);
+
+        assertEquals(allIds(), ids(streamed));
+        assertEquals(5, server.getRequestCount());
+        assertEquals(FakeCloudServer.DEFAULT_LIMIT, pages.list.size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.weeblycloud.Page;
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class CloudPublisherTest {
+    private static final int TOTAL = 103;
+
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.setSeedSize(TOTAL);
+        server.start();
+        client = new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    /**
+     * Records the signals it receives.
+     */
+    private static class Recorder implements Subscriber<Page> {
+        final List<Page> items = new ArrayList<Page>();
+        volatile Subscription subscription;
+        volatile Throwable error;
+        volatile boolean complete;
+
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public synchronized void onNext(Page item) {
+            items.add(item);
+        }
+
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        public void onComplete() {
+            complete = true;
+        }
+
+        synchronized int count() {
+            return items.size();
+        }
+    }
+
+    private CloudPublisher<Page> publisher(CloudClient client) {
+        return new CloudPublisher<Page>(client, "user/1/site/2/page", null,
+            new String[] {"1", "2"}, Page::arrayFromJson);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void loadsPagesOnlyAsItemsAreRequested() throws Exception {
+        Recorder recorder = new Recorder();
+        publisher(client).subscribe(recorder);
+        assertEquals(0, server.getRequestCount());
+
+        recorder.subscription.request(10);
+        await(() -> recorder.count() == 10);
+        Thread.sleep(50);
+        assertEquals(10, recorder.count());
+        assertEquals(1, server.getRequestCount());
+
+        recorder.subscription.request(20);
+        await(() -> recorder.count() == 30);
+        assertEquals(2, server.getRequestCount());
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        await(() -> recorder.complete);
+        assertEquals(TOTAL, recorder.count());
+        for (int i = 0; i < TOTAL; i++) {
+            assertEquals(i + 1, recorder.items.get(i).getProperty("page_id").getAsInt());
+        }
+        assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    public void stopsAfterCancel() throws Exception {
+        Recorder recorder = new Recorder();
+        publisher(client).subscribe(recorder);
+
+        recorder.subscription.request(FakeCloudServer.DEFAULT_LIMIT);
+        await(() -> recorder.count() == FakeCloudServer.DEFAULT_LIMIT);
+        recorder.subscription.cancel();
+        recorder.subscription.request(Long.MAX_VALUE);
+        Thread.sleep(100);
+
+        assertEquals(FakeCloudServer.DEFAULT_LIMIT, recorder.count());
+        assertEquals(1, server.getRequestCount());
+        assertFalse(recorder.complete);
+        assertEquals(null, recorder.error);
+    }
+
+    @Test
+    public void signalsMissingClientWithOnError() throws Exception {
+        CloudClient previous = CloudClient.getClient();
+        CloudClient.setClient(null);
+        try {
+            Recorder recorder = new Recorder();
+            publisher(null).subscribe(recorder);
+
+            recorder.subscription.request(1);
+
+            assertTrue(recorder.error instanceof IllegalStateException);
+            assertEquals(0, recorder.count());
+        } finally {
+            CloudClient.setClient(previous);
+        }
+    }
+}
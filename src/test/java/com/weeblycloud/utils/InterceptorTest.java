@@ -0,0 +1,135 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InterceptorTest {
+    private CloudClient client;
+
+    @Before
+    public void setUp() {
+        client = new CloudClient.Builder("key", "secret").build();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+    }
+
+    private static CloudResponse response(String body) throws Exception {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(body, "UTF-8"));
+        return new CloudResponse(response, "user/1", new HashMap<String, Object>());
+    }
+
+    @Test
+    public void blockingInterceptorSeesAsyncRequests() throws Exception {
+        CloudResponse canned = response("{\"user_id\":\"1\"}");
+        List<String> seen = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        client.addInterceptor(chain -> {
+            seen.add("outer " + chain.request());
+            threads.add(Thread.currentThread());
+            return chain.proceed(chain.request().withHeader("X-Trace-Id", "1"));
+        });
+        client.addInterceptor(chain -> {
+            seen.add("inner " + chain.request().getHeaders().get("X-Trace-Id"));
+            threads.add(Thread.currentThread());
+            return canned;
+        });
+
+        CloudResponse res = client.makeRequestAsync(
+            new CloudRequest("user/1", "GET", new HashMap<String, Object>()))
+            .get(10, TimeUnit.SECONDS);
+
+        assertSame(canned, res);
+        assertEquals(2, seen.size());
+        assertEquals("outer GET user/1", seen.get(0));
+        assertEquals("inner 1", seen.get(1));
+        assertNotEquals(Thread.currentThread(), threads.get(0));
+        assertSame(threads.get(0), threads.get(1));
+    }
+
+    @Test
+    public void asyncInterceptorErrorsFailTheFuture() throws Exception {
+        client.addInterceptor(chain -> {
+            throw new CloudException("Rejected", 400);
+        });
+
+        try {
+            client.makeRequestAsync(new CloudRequest("user/1", "GET", new HashMap<String, Object>()))
+                .get(10, TimeUnit.SECONDS);
+            fail("Expected the interceptor error");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertTrue(e.getCause() instanceof CloudException);
+            assertEquals(400, ((CloudException) e.getCause()).getCode());
+        }
+    }
+
+    @Test
+    public void requestDataCannotBeModified() {
+        HashMap<String, Object> data = new HashMap<String, Object>();
+        data.put("page", 1);
+        CloudRequest request = new CloudRequest("user/1/site", "GET", data);
+
+        data.put("page", 2);
+        request.getData().put("page", 3);
+
+        assertEquals(1, request.getData().get("page"));
+        assertFalse(request.withData(data).getData() == request.getData());
+    }
+
+    @Test
+    public void interceptorThreadsCapBlockingInterceptors() throws Exception {
+        client.close();
+        client = new CloudClient.Builder("key", "secret").setInterceptorThreads(2).build();
+        CloudResponse canned = response("{}");
+        AtomicInteger entered = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        client.addInterceptor(chain -> {
+            entered.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return canned;
+        });
+
+        List<CompletableFuture<CloudResponse>> futures =
+            new ArrayList<CompletableFuture<CloudResponse>>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.makeRequestAsync(
+                new CloudRequest("user/" + i, "GET", new HashMap<String, Object>())));
+        }
+        Thread.sleep(200);
+
+        assertEquals(Bulk.isVirtual() ? 3 : 2, entered.get());
+        release.countDown();
+        for (CompletableFuture<CloudResponse> future : futures) {
+            assertSame(canned, future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(3, entered.get());
+    }
+}
@@ -0,0 +1,39 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class InvalidationsTest {
+    @Test
+    public void requestsStartedAfterInvalidationAreCached() {
+        Invalidations invalidations = new Invalidations();
+        invalidations.invalidate("user/1/site/2");
+        long started = invalidations.current();
+
+        assertFalse(invalidations.isInvalidated("user/1/site/2", started));
+    }
+
+    @Test
+    public void invalidatesPathSubPathsAndParents() {
+        Invalidations invalidations = new Invalidations();
+        long started = invalidations.current();
+        invalidations.invalidate("user/1/site/2");
+
+        assertTrue(invalidations.isInvalidated("user/1/site/2", started));
+        assertTrue(invalidations.isInvalidated("user/1/site/2/page", started));
+        assertTrue(invalidations.isInvalidated("user/1/site", started));
+        assertTrue(invalidations.isInvalidated("user/1", started));
+    }
+
+    @Test
+    public void leavesUnrelatedPaths() {
+        Invalidations invalidations = new Invalidations();
+        long started = invalidations.current();
+        invalidations.invalidate("user/1/site/2");
+
+        assertFalse(invalidations.isInvalidated("plan", started));
+        assertFalse(invalidations.isInvalidated("user/2/site/2", started));
+    }
+}
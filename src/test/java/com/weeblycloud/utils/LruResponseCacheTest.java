@@ -0,0 +1,108 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class LruResponseCacheTest {
+    private static final HashMap<String, Object> NONE = new HashMap<String, Object>();
+
+    private static CloudResponse response(String url) throws Exception {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity("{}", "UTF-8"));
+        return new CloudResponse(response, url, NONE);
+    }
+
+    @Test
+    public void cachesOnlyEndpointsWithTtl() throws Exception {
+        LruResponseCache cache = new LruResponseCache(10);
+        cache.setTtl("user/{id}/theme", 60 * 1000);
+
+        CloudResponse theme = response("user/1/theme");
+        cache.put("user/1/theme", NONE, theme);
+        cache.put("user/1/site", NONE, response("user/1/site"));
+
+        assertSame(theme, cache.get("user/1/theme", NONE).response);
+        assertNull(cache.get("user/1/site", NONE));
+    }
+
+    @Test
+    public void keysIncludeParameters() throws Exception {
+        LruResponseCache cache = new LruResponseCache(10);
+        cache.setTtl("plan", 60 * 1000);
+        HashMap<String, Object> page2 = new HashMap<String, Object>();
+        page2.put("page", 2);
+
+        cache.put("plan", NONE, response("plan"));
+
+        assertNotNull(cache.get("plan", NONE));
+        assertNull(cache.get("plan", page2));
+    }
+
+    @Test
+    public void invalidatesPathSubPathsAndParents() throws Exception {
+        LruResponseCache cache = new LruResponseCache(10);
+        cache.setTtl("user/{id}", 60 * 1000);
+        cache.setTtl("user/{id}/site/{id}", 60 * 1000);
+        cache.setTtl("user/{id}/site/{id}/page", 60 * 1000);
+        cache.setTtl("user/{id}/theme", 60 * 1000);
+
+        for (String url : new String[] {"user/1", "user/1/site/2", "user/1/site/2/page",
+                "user/1/theme", "user/2"}) {
+            cache.put(url, NONE, response(url));
+        }
+        cache.invalidate("user/1/site/2");
+
+        assertNull(cache.get("user/1", NONE));
+        assertNull(cache.get("user/1/site/2", NONE));
+        assertNull(cache.get("user/1/site/2/page", NONE));
+        assertNotNull(cache.get("user/1/theme", NONE));
+        assertNotNull(cache.get("user/2", NONE));
+    }
+
+    @Test
+    public void servesStaleWhileRevalidating() throws Exception {
+        LruResponseCache cache = new LruResponseCache(10);
+        cache.setTtl("plan", 20, 60 * 1000);
+        cache.put("plan", NONE, response("plan"));
+
+        assertFalse(cache.get("plan", NONE).stale);
+        Thread.sleep(40);
+        assertTrue(cache.get("plan", NONE).stale);
+    }
+
+    @Test
+    public void expires() throws Exception {
+        LruResponseCache cache = new LruResponseCache(10);
+        cache.setTtl("plan", 20);
+        cache.put("plan", NONE, response("plan"));
+
+        Thread.sleep(40);
+        assertNull(cache.get("plan", NONE));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        LruResponseCache cache = new LruResponseCache(2);
+        cache.setTtl("user/{id}", 60 * 1000);
+        cache.put("user/1", NONE, response("user/1"));
+        cache.put("user/2", NONE, response("user/2"));
+        cache.get("user/1", NONE);
+        cache.put("user/3", NONE, response("user/3"));
+
+        assertNotNull(cache.get("user/1", NONE));
+        assertNull(cache.get("user/2", NONE));
+        assertNotNull(cache.get("user/3", NONE));
+    }
+}
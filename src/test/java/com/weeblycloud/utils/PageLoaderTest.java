@@ -0,0 +1,190 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.weeblycloud.fake.FakeCloudServer;
+
+public class PageLoaderTest {
+    private static final String URL = "user/1/site/2/page";
+    private static final int TOTAL = 103;
+
+    private FakeCloudServer server;
+    private CloudClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeCloudServer("key", "secret");
+        server.setSeedSize(TOTAL);
+        server.start();
+        client = new CloudClient.Builder("key", "secret")
+            .setBaseUrl(server.getBaseUrl())
+            .setScheme("http")
+            .build();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    private CloudResponse first(int limit) throws CloudException {
+        HashMap<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("limit", limit);
+        return client.get(URL, parameters);
+    }
+
+    private static List<Integer> ids(CloudResponse res) {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (JsonElement item : res.body.getAsJsonArray()) {
+            ids.add(item.getAsJsonObject().get("page_id").getAsInt());
+        }
+        return ids;
+    }
+
+    private static List<Integer> expected(int from) {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int id = from; id <= TOTAL; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Loads the remaining pages, checking that each one ends where its
+     * page number says, and returns the ids of their items.
+     *
+     * @param limits Receives the page size of each page.
+     */
+    private static List<Integer> drain(PageLoader loader, List<Integer> ids,
+            List<Integer> limits) throws CloudException {
+        CloudResponse res;
+        while ((res = loader.next()) != null) {
+            ids.addAll(ids(res));
+            assertEquals("end of page " + res.page + " of " + res.limit,
+                Math.min(res.page * res.limit, TOTAL), ids.size());
+            limits.add(res.limit);
+        }
+        return ids;
+    }
+
+    @Test
+    public void loadsEveryPageInOrder() throws Exception {
+        CloudResponse first = first(10);
+        List<Integer> limits = new ArrayList<Integer>();
+
+        List<Integer> ids = drain(new PageLoader(first), ids(first), limits);
+
+        assertEquals(expected(1), ids);
+        assertEquals(10, limits.size());
+        assertNull(new PageLoader(first, TOTAL).next());
+    }
+
+    @Test
+    public void startsAtOffset() throws Exception {
+        CloudResponse first = first(10);
+
+        List<Integer> ids = drain(new PageLoader(first, 30),
+            new ArrayList<Integer>(expected(1).subList(0, 30)), new ArrayList<Integer>());
+
+        assertEquals(expected(1), ids);
+    }
+
+    @Test
+    public void changesPageSizeAtUnalignedOffset() throws Exception {
+        CloudResponse first = first(10);
+        PageLoader loader = new PageLoader(first);
+        loader.setSizer(AdaptivePageSize.fixed(10, 25));
+        List<Integer> limits = new ArrayList<Integer>();
+
+        List<Integer> ids = drain(loader, ids(first), limits);
+
+        //The first page of 25 repeats the 10 items already loaded,
+        //which are dropped
+        assertEquals(expected(1), ids);
+        assertEquals(Arrays.asList(25, 25, 25, 25, 25), limits);
+    }
+
+    @Test
+    public void changesToMuchLargerPageSizeStraightAway() throws Exception {
+        CloudResponse first = first(20);
+        PageLoader loader = new PageLoader(first);
+        loader.setSizer(AdaptivePageSize.fixed(20, 1000));
+        List<Integer> limits = new ArrayList<Integer>();
+        long requests = server.getRequestCount();
+
+        List<Integer> ids = drain(loader, ids(first), limits);
+
+        assertEquals(expected(1), ids);
+        assertEquals(Arrays.asList(1000), limits);
+        assertEquals(requests + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void waitsOnePageToDoublePageSize() throws Exception {
+        CloudResponse first = first(10);
+        PageLoader loader = new PageLoader(first);
+        loader.setSizer(AdaptivePageSize.fixed(10, 20));
+        List<Integer> limits = new ArrayList<Integer>();
+
+        List<Integer> ids = drain(loader, ids(first), limits);
+
+        //Offset 10 is one page from 20, so nothing is requested twice
+        assertEquals(expected(1), ids);
+        assertEquals(Arrays.asList(10, 20, 20, 20, 20, 20), limits);
+    }
+
+    @Test
+    public void growingPagesStayAligned() throws Exception {
+        CloudResponse first = first(5);
+        PageLoader loader = new PageLoader(first);
+        loader.setSizer(new AdaptivePageSize(1000, 60 * 1000, Long.MAX_VALUE).start(5));
+        List<Integer> limits = new ArrayList<Integer>();
+
+        List<Integer> ids = drain(loader, ids(first), limits);
+
+        assertEquals(expected(1), ids);
+        assertTrue("page sizes " + limits, limits.get(limits.size() - 1) > 5);
+    }
+
+    @Test
+    public void requestsClampedPagesAgain() throws Exception {
+        server.setMaxLimit(40);
+        CloudResponse first = first(5);
+        PageLoader loader = new PageLoader(first);
+        loader.setSizer(new AdaptivePageSize(1000, 60 * 1000, Long.MAX_VALUE).start(5));
+        List<Integer> limits = new ArrayList<Integer>();
+
+        List<Integer> ids = drain(loader, ids(first), limits);
+
+        assertEquals(expected(1), ids);
+        for (int limit : limits) {
+            assertTrue("page sizes " + limits, limit <= 40);
+        }
+    }
+
+    @Test
+    public void prefetchedPagesStayInOrder() throws Exception {
+        server.setLatency(0, 20);
+        CloudResponse first = first(10);
+        PageLoader loader = new PageLoader(first);
+        loader.setSizer(new AdaptivePageSize(1000, 60 * 1000, Long.MAX_VALUE).start(10));
+        loader.setWindow(3);
+
+        List<Integer> ids = drain(loader, ids(first), new ArrayList<Integer>());
+
+        assertEquals(expected(1), ids);
+    }
+}
@@ -0,0 +1,81 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class RequestSignerTest {
+    private static final String[][] VECTORS = {
+        //secret, method, url, body
+        {"secret", "GET", "user/1", ""},
+        {"secret", "POST", "user", "{\"email\":\"test@example.com\"}"},
+        {"sécret-ключ", "POST", "user/1/site", "{\"site_title\":\"Café ☕ 日本\"}"},
+        {"k", "PATCH", "user/1/site/2/page/3", "{\"title\":\"\\u00e9\\n\"}"},
+        {"", "DELETE", "user/1/site/2", ""},
+        {"secret", "PUT", "user/1/site/2/blog/3/post/4", new String(new char[5000]).replace('\0', 'ü')},
+    };
+
+    /**
+     * The signing code RequestSigner replaced.
+     */
+    private static String makeHash(String apiSecret, String message) throws Exception {
+        Mac sha256_HMAC = Mac.getInstance("HmacSHA256");
+        SecretKeySpec secretKey = new SecretKeySpec(apiSecret.getBytes("utf-8"), "HmacSHA256");
+        sha256_HMAC.init(secretKey);
+        byte[] hash = sha256_HMAC.doFinal(message.getBytes("utf-8"));
+
+        String hexString = String.format("%064x", new BigInteger(1,hash));
+        return Base64.getEncoder().encodeToString(hexString.getBytes("utf-8"));
+    }
+
+    @Test
+    public void matchesOriginalImplementation() throws Exception {
+        for (String[] v : VECTORS) {
+            if (v[0].isEmpty()) {
+                //Mac does not accept an empty key
+                continue;
+            }
+            String message = v[1] + "\n" + v[2] + "\n" + v[3];
+            String expected = makeHash(v[0], message);
+            RequestSigner signer = new RequestSigner(v[0]);
+
+            assertEquals(expected, signer.sign(message));
+            assertEquals(expected,
+                signer.sign(v[1], v[2], v[3].getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    public void matchesKnownSignatures() {
+        assertEquals(
+            "MDhkMmQ4ZWFlZWZhYzJiZjEzMzQ5ZGMwNzlmZGZmMzhiODliNmMyYjgzMDUyYTNiODJhMjdkYzJjYmMyMDdmYQ==",
+            new RequestSigner("secret").sign("GET", "user/1", new byte[0]));
+        assertEquals(
+            "NTZiM2IyMjc4MTJiNGYzNDdiODQ2NGYyZDg1NDE5OTIwMjZlNjc0NTM4NTllNjBlZTNlYTUzMmZhOGM1NmQ4Mw==",
+            new RequestSigner("sécret-ключ").sign("POST", "user/1/site",
+                "{\"site_title\":\"Café ☕ 日本\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void signaturesWithLeadingZeroNibblesArePadded() throws Exception {
+        //The first vector's hash starts with 0, which %064x pads
+        String message = "GET\nuser/1\n";
+        assertEquals(makeHash("secret", message), new RequestSigner("secret").sign(message));
+    }
+
+    @Test
+    public void repeatedSigningIsStable() throws Exception {
+        RequestSigner signer = new RequestSigner("secret");
+        String expected = makeHash("secret", "GET\nuser/1\n");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected, signer.sign("GET", "user/1", new byte[0]));
+        }
+    }
+}
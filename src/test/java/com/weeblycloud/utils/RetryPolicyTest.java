@@ -0,0 +1,70 @@
+package com.weeblycloud.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+
+import org.junit.Test;
+
+public class RetryPolicyTest {
+    private static CloudException status(int statusCode, long retryAfter) {
+        return new CloudException("Error performing request", statusCode)
+            .setStatusCode(statusCode)
+            .setRetryAfter(retryAfter);
+    }
+
+    @Test
+    public void retriesTransientFailures() {
+        RetryPolicy policy = new RetryPolicy();
+
+        assertTrue(policy.isRetryable(status(429, -1)));
+        assertTrue(policy.isRetryable(status(503, -1)));
+        assertTrue(policy.isRetryable(new CloudException("Response timed out", 999)));
+        assertTrue(policy.isRetryable(new RuntimeException(new IOException("reset"))));
+        assertFalse(policy.isRetryable(status(404, -1)));
+        assertFalse(policy.isRetryable(new RuntimeException(new UnknownHostException("x"))));
+    }
+
+    @Test
+    public void backoffStaysWithinDelays() {
+        RetryPolicy.Attempts attempts = new RetryPolicy(100, 10, 40, 60 * 1000).start();
+        for (int i = 0; i < 50; i++) {
+            long delay = attempts.retryDelay(status(500, -1));
+            assertTrue("delay " + delay, delay >= 10 && delay <= 40);
+        }
+    }
+
+    @Test
+    public void stopsAfterMaxAttempts() {
+        RetryPolicy.Attempts attempts = new RetryPolicy(3, 1, 1, 60 * 1000).start();
+
+        assertTrue(attempts.retryDelay(status(500, -1)) >= 0);
+        assertTrue(attempts.retryDelay(status(500, -1)) >= 0);
+        assertEquals(-1, attempts.retryDelay(status(500, -1)));
+    }
+
+    @Test
+    public void waitsAtLeastRetryAfter() {
+        RetryPolicy.Attempts attempts = new RetryPolicy(4, 10, 40, 60 * 1000).start();
+
+        assertEquals(3000, attempts.retryDelay(status(429, 3000)));
+        assertEquals(2000, attempts.retryDelay(status(503, 2000)));
+    }
+
+    @Test
+    public void ignoresRetryAfterOnOtherStatuses() {
+        RetryPolicy.Attempts attempts = new RetryPolicy(4, 10, 40, 60 * 1000).start();
+
+        assertTrue(attempts.retryDelay(status(500, 3000)) <= 40);
+    }
+
+    @Test
+    public void givesUpWhenRetryAfterExceedsBudget() {
+        RetryPolicy.Attempts attempts = new RetryPolicy(4, 10, 40, 1000).start();
+
+        assertEquals(-1, attempts.retryDelay(status(429, 5000)));
+    }
+}